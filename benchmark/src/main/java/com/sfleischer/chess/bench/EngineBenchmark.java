@@ -0,0 +1,86 @@
+package com.sfleischer.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sfleischer.chess.engine.Position;
+import com.sfleischer.chess.engine.search.Engine;
+import com.sfleischer.chess.engine.search.ParallelSearch;
+import com.sfleischer.chess.engine.search.SearchLimits;
+import com.sfleischer.chess.engine.search.SearchOptions;
+import com.sfleischer.chess.engine.search.SearchResult;
+import com.sfleischer.chess.engine.search.TranspositionTable;
+
+/**
+ * The time from starting a short search to having its move, on an engine that is kept
+ * from move to move ("kept") and on one made for the move ("fresh"), which has to
+ * start its threads and fill its killers and history from nothing.
+ * @author sfleischer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EngineBenchmark {
+
+	@Param({"kept", "fresh"})
+	public String engine;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	@Param({"5"})
+	public int depth;
+
+	private Position pos;
+	private TranspositionTable table;
+	private Engine kept;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		pos = Position.fromFen(PerftBenchmark.KIWIPETE);
+		table = TranspositionTable.create(64, false);
+		kept = create();
+	}
+
+	@Setup(Level.Invocation)
+	public void clear(){
+		table.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown(){
+		kept.shutdown();
+	}
+
+	@Benchmark
+	public SearchResult search() throws InterruptedException{
+		if(engine.equals("kept"))
+			return kept.start(pos, SearchLimits.depth(depth)).get();
+		Engine fresh = create();
+		SearchResult result = fresh.start(pos, SearchLimits.depth(depth)).get();
+		fresh.shutdown();
+		return result;
+	}
+
+	private Engine create(){
+		return new Engine(table, ParallelSearch.create("lazy", table, threads,
+				new SearchOptions()));
+	}
+}
@@ -0,0 +1,86 @@
+package com.sfleischer.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sfleischer.chess.engine.MoveStack;
+import com.sfleischer.chess.engine.Position;
+import com.sfleischer.chess.engine.search.ParallelSearch;
+import com.sfleischer.chess.engine.search.SearchOptions;
+import com.sfleischer.chess.engine.search.SearchResult;
+import com.sfleischer.chess.engine.search.TranspositionTable;
+
+/**
+ * Time to depth of both parallel searches with more and more threads, to pick the
+ * better one for a machine. Both prune, reduce and narrow the root window with the
+ * same options, so they search trees of about the same size and only the way the
+ * threads share it differs. The table is cleared before every search so no run
+ * profits from the one before.
+ * @author sfleischer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+	@Param({"lazy", "ybwc"})
+	public String mode;
+
+	@Param({"1", "2", "4", "8", "16", "32"})
+	public int threads;
+
+	@Param({"start", "kiwipete"})
+	public String position;
+
+	@Param({"6"})
+	public int depth;
+
+	private Position pos;
+	private int[] moves;
+	private int count;
+	private TranspositionTable table;
+	private ParallelSearch parallel;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		pos = Position.fromFen(position.equals("kiwipete")
+				? PerftBenchmark.KIWIPETE : Position.STARTING_FEN);
+		MoveStack stack = new MoveStack();
+		count = stack.generate(pos, 0);
+		moves = stack.get(0);
+		table = TranspositionTable.create(64, false);
+		parallel = ParallelSearch.create(mode, table, threads, new SearchOptions());
+	}
+
+	@Setup(Level.Invocation)
+	public void clear(){
+		table.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown(){
+		parallel.shutdown();
+	}
+
+	@Benchmark
+	public SearchResult search(){
+		return parallel.search(pos, moves, count, depth, null, null);
+	}
+}
@@ -0,0 +1,72 @@
+package com.sfleischer.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sfleischer.chess.engine.MoveStack;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. This measures the
+ * move generator together with make and unmake, and the node counts are well known,
+ * so a wrong count shows up as soon as the numbers are compared.
+ * @author sfleischer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+	//"kiwipete" is full of castling, pins, en passant and promotions
+	public static final String KIWIPETE =
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	@Param({"start", "kiwipete"})
+	public String position;
+
+	@Param({"4"})
+	public int depth;
+
+	private Position pos;
+	private MoveStack stack;
+
+	@Setup
+	public void setup(){
+		pos = Position.fromFen(position.equals("kiwipete") ? KIWIPETE : Position.STARTING_FEN);
+		stack = new MoveStack();
+	}
+
+	@Benchmark
+	public long perft(){
+		return perft(0, depth);
+	}
+
+	private long perft(int ply, int depth){
+		int count = stack.generate(pos, ply);
+		if(depth == 1)
+			return count;
+		int[] moves = stack.get(ply);
+		long nodes = 0;
+		for(int i = 0; i < count; i++){
+			pos.makeMove(moves[i]);
+			nodes += perft(ply + 1, depth - 1);
+			pos.unmakeMove();
+		}
+		return nodes;
+	}
+}
@@ -0,0 +1,90 @@
+package com.sfleischer.chess.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sfleischer.chess.engine.MoveStack;
+import com.sfleischer.chess.engine.Position;
+import com.sfleischer.chess.engine.search.Search;
+import com.sfleischer.chess.engine.search.SearchOptions;
+import com.sfleischer.chess.engine.search.SearchResult;
+import com.sfleischer.chess.engine.search.TranspositionTable;
+
+/**
+ * Time to depth on one thread with each kind of pruning and each narrow window on
+ * its own, with none and with all of them.
+ * @author sfleischer
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SelectivityBenchmark {
+
+	@Param({"none", "nullmove", "lmr", "futility", "pvs", "aspiration", "all"})
+	public String selectivity;
+
+	@Param({"start", "kiwipete"})
+	public String position;
+
+	@Param({"7"})
+	public int depth;
+
+	private Position pos;
+	private int[] legal; //the moves in the order the generator gives them
+	private int[] moves; //the moves of one search, which it reorders
+	private int count;
+	private TranspositionTable table;
+	private Search search;
+
+	@Setup(Level.Trial)
+	public void setup(){
+		pos = Position.fromFen(position.equals("kiwipete")
+				? PerftBenchmark.KIWIPETE : Position.STARTING_FEN);
+		MoveStack stack = new MoveStack();
+		count = stack.generate(pos, 0);
+		legal = Arrays.copyOf(stack.get(0), count);
+		table = TranspositionTable.create(64, false);
+		boolean all = selectivity.equals("all");
+		SearchOptions options = new SearchOptions(all || selectivity.equals("nullmove"),
+				all || selectivity.equals("lmr"), all || selectivity.equals("futility"),
+				all || selectivity.equals("pvs"), all || selectivity.equals("aspiration"));
+		search = new Search(pos.copy(), table, options);
+	}
+
+	@Setup(Level.Invocation)
+	public void clear(){
+		table.clear();
+		search.newSearch();
+		moves = legal.clone();
+	}
+
+	/**
+	 * Iterative deepening like the engine does it, since the shallower iterations
+	 * fill the table that orders the deeper ones
+	 */
+	@Benchmark
+	public SearchResult search(){
+		SearchResult result = null;
+		for(int d = 1; d <= depth; d++){
+			result = search.searchIteration(moves, count, d, result, null);
+		}
+		return result;
+	}
+}
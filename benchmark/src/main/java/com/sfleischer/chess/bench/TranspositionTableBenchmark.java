@@ -0,0 +1,56 @@
+package com.sfleischer.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sfleischer.chess.engine.search.TranspositionTable;
+
+/**
+ * Compares storing into and probing the table on the heap with the table in direct
+ * memory. The keys are spread over the whole table so most probes miss the cache,
+ * like they do in a search.
+ * @author sfleischer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranspositionTableBenchmark {
+
+	@Param({"heap", "direct"})
+	public String kind;
+
+	@Param({"256"})
+	public int megabytes;
+
+	private TranspositionTable table;
+	private long key;
+
+	@Setup
+	public void setup(){
+		table = TranspositionTable.create(megabytes, kind.equals("direct"));
+		key = 1;
+	}
+
+	@Benchmark
+	public long storeAndProbe(){
+		key = key * 0x9E3779B97F4A7C15L + 1;
+		table.store(key, (int) key & 0xFFF, (short) key, (int) key & 31,
+				TranspositionTable.EXACT);
+		return table.probe(key * 31);
+	}
+}
@@ -0,0 +1,48 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public class Bishop extends Piece{
+
+	public static final int WORTH = 3;
+	
+	public Bishop(Location loc, Polarity p){
+		super(loc, WORTH, p);
+	}
+
+
+	@Override
+	public Set<Location> getPreliminaryMoves(ChessModel model) {
+		Position pos = model.getPosition();
+		long own = pos.getOccupancy(Position.side(side));
+		long targets = Bitboard.bishopAttacks(getSquare(), pos.getOccupied()) & ~own;
+		return Bitboard.toLocations(targets);
+	}
+	
+	@Override
+	public int getType() {
+		return Position.BISHOP;
+	}
+	
+	@Override
+	public Set<Location> getPremoveLocations(){
+		Set<Location> set = new TreeSet<Location>();
+		int direction;
+		for(int i = 0; i < 4; i++){
+			direction = Location.NORTHEAST + i * 90;
+			Location next = loc.getAdjacentLocation(direction);
+			while(!Location.isLocationOutOfBounds(next)){
+				set.add(next);
+				next = next.getAdjacentLocation(direction);
+			}
+		}
+		return set;
+	}
+
+
+	@Override
+	public Piece copy() {
+		return new Bishop(loc, side);
+	}
+}
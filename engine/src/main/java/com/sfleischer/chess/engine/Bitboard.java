@@ -0,0 +1,282 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A bitboard is a <code>long</code> where each of the 64 bits stands for one square
+ * of the board. Square 0 is a1 (row 0, column 0), square 7 is h1 and square 63 is h8,
+ * so the index of a square is <code>row * 8 + column</code>. This class holds the
+ * static helpers that shift and mask bitboards to find the squares a piece attacks.
+ * @author sfleischer
+ *
+ */
+public final class Bitboard {
+
+	//file and rank masks
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_B = FILE_A << 1;
+	public static final long FILE_G = FILE_A << 6;
+	public static final long FILE_H = FILE_A << 7;
+	public static final long RANK_1 = 0xFFL;
+	public static final long RANK_2 = RANK_1 << 8;
+	public static final long RANK_3 = RANK_1 << 16;
+	public static final long RANK_6 = RANK_1 << 40;
+	public static final long RANK_7 = RANK_1 << 48;
+	public static final long RANK_8 = RANK_1 << 56;
+
+	//attack tables of the leaping pieces, indexed by square
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64]; //indexed by side first
+
+	//the squares strictly between two squares and the whole line through them
+	//(both are empty when the squares do not share a rank, file or diagonal)
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	static {
+		for(int sq = 0; sq < 64; sq++){
+			long b = bit(sq);
+			KNIGHT_ATTACKS[sq] = knightAttackSet(b);
+			KING_ATTACKS[sq] = kingAttackSet(b);
+			PAWN_ATTACKS[Position.WHITE][sq] = pawnAttackSet(b, Position.WHITE);
+			PAWN_ATTACKS[Position.BLACK][sq] = pawnAttackSet(b, Position.BLACK);
+		}
+		for(int a = 0; a < 64; a++){
+			for(int b = 0; b < 64; b++){
+				if(a == b)
+					continue;
+				if((rookRays(a, 0) & bit(b)) != 0){
+					BETWEEN[a][b] = rookRays(a, bit(b)) & rookRays(b, bit(a));
+					LINE[a][b] = (rookRays(a, 0) & rookRays(b, 0)) | bit(a) | bit(b);
+				} else if((bishopRays(a, 0) & bit(b)) != 0){
+					BETWEEN[a][b] = bishopRays(a, bit(b)) & bishopRays(b, bit(a));
+					LINE[a][b] = (bishopRays(a, 0) & bishopRays(b, 0)) | bit(a) | bit(b);
+				}
+			}
+		}
+	}
+
+	private Bitboard(){}
+
+	/*********************************************************************************
+	 ------------------------------- SQUARE METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 *
+	 * @param row The row of the square
+	 * @param col The column of the square
+	 * @return The index of the square (0 to 63)
+	 */
+	public static int square(int row, int col){
+		return row * 8 + col;
+	}
+
+	/**
+	 * Precondition: the location is on the board
+	 * @param loc The location to convert
+	 * @return The index of the square (0 to 63)
+	 */
+	public static int square(Location loc){
+		return loc.row * 8 + loc.col;
+	}
+
+	/**
+	 *
+	 * @param sq The index of the square
+	 * @return The shared location that represents the square
+	 */
+	public static Location location(int sq){
+		return Location.of(sq);
+	}
+
+	/**
+	 *
+	 * @param sq The index of the square
+	 * @return A bitboard with only the bit of that square set
+	 */
+	public static long bit(int sq){
+		return 1L << sq;
+	}
+
+	/**
+	 * Converts every set bit of the bitboard into a location. The locations come out
+	 * in the same order as <code>Location.compareTo</code>
+	 * @param bb The bitboard to convert
+	 * @return The set of locations
+	 */
+	public static Set<Location> toLocations(long bb){
+		Set<Location> set = new TreeSet<Location>();
+		while(bb != 0){
+			set.add(location(Long.numberOfTrailingZeros(bb)));
+			bb &= bb - 1;
+		}
+		return set;
+	}
+
+	/**
+	 *
+	 * @return The squares strictly between a and b if they share a rank, file or
+	 * diagonal and 0 otherwise
+	 */
+	public static long between(int a, int b){
+		return BETWEEN[a][b];
+	}
+
+	/**
+	 *
+	 * @return Every square of the rank, file or diagonal through a and b (edge to
+	 * edge) or 0 if they do not share one
+	 */
+	public static long line(int a, int b){
+		return LINE[a][b];
+	}
+
+	/*********************************************************************************
+	 ------------------------------- SHIFT METHODS -----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Moves every bit of the bitboard one square in the given direction. Bits that
+	 * would wrap around the edge of the board are dropped.
+	 * @param bb The bitboard to shift
+	 * @param direction One of the cardinal constants in <code>Location</code>
+	 * @return The shifted bitboard
+	 */
+	public static long shift(long bb, int direction){
+		switch(direction){
+			case Location.NORTH: return bb << 8;
+			case Location.SOUTH: return bb >>> 8;
+			case Location.EAST: return (bb << 1) & ~FILE_A;
+			case Location.WEST: return (bb >>> 1) & ~FILE_H;
+			case Location.NORTHEAST: return (bb << 9) & ~FILE_A;
+			case Location.NORTHWEST: return (bb << 7) & ~FILE_H;
+			case Location.SOUTHEAST: return (bb >>> 7) & ~FILE_A;
+			case Location.SOUTHWEST: return (bb >>> 9) & ~FILE_H;
+		}
+		return 0;
+	}
+
+	/**
+	 * Slides from the square along the direction until the edge of the board or the
+	 * first occupied square (which is included)
+	 * @param sq The square the slider stands on
+	 * @param occupied The occupancy of the whole board
+	 * @param direction One of the cardinal constants in <code>Location</code>
+	 * @return The squares attacked along that ray
+	 */
+	public static long ray(int sq, long occupied, int direction){
+		long attacks = 0;
+		long bb = bit(sq);
+		while((bb = shift(bb, direction)) != 0){
+			attacks |= bb;
+			if((bb & occupied) != 0)
+				break;
+		}
+		return attacks;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ATTACK METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Looks the rook's attacks up in the magic tables
+	 * @param sq The square of the rook
+	 * @param occupied The occupancy of the whole board
+	 * @return The squares the rook attacks
+	 */
+	public static long rookAttacks(int sq, long occupied){
+		return Magic.rookAttacks(sq, occupied);
+	}
+
+	public static long bishopAttacks(int sq, long occupied){
+		return Magic.bishopAttacks(sq, occupied);
+	}
+
+	public static long queenAttacks(int sq, long occupied){
+		return Magic.rookAttacks(sq, occupied) | Magic.bishopAttacks(sq, occupied);
+	}
+
+	/**
+	 * Walks the four rook rays one square at a time. This is only used to build the
+	 * magic tables; use <code>rookAttacks</code> everywhere else.
+	 * @param sq The square of the rook
+	 * @param occupied The occupancy of the whole board
+	 * @return The squares the rook attacks
+	 */
+	public static long rookRays(int sq, long occupied){
+		return ray(sq, occupied, Location.NORTH) | ray(sq, occupied, Location.SOUTH)
+				| ray(sq, occupied, Location.EAST) | ray(sq, occupied, Location.WEST);
+	}
+
+	/**
+	 * Walks the four bishop rays one square at a time. This is only used to build the
+	 * magic tables; use <code>bishopAttacks</code> everywhere else.
+	 * @param sq The square of the bishop
+	 * @param occupied The occupancy of the whole board
+	 * @return The squares the bishop attacks
+	 */
+	public static long bishopRays(int sq, long occupied){
+		return ray(sq, occupied, Location.NORTHEAST)
+				| ray(sq, occupied, Location.NORTHWEST)
+				| ray(sq, occupied, Location.SOUTHEAST)
+				| ray(sq, occupied, Location.SOUTHWEST);
+	}
+
+	public static long knightAttacks(int sq){
+		return KNIGHT_ATTACKS[sq];
+	}
+
+	public static long kingAttacks(int sq){
+		return KING_ATTACKS[sq];
+	}
+
+	/**
+	 *
+	 * @param sq The square of the pawn
+	 * @param side The side of the pawn (<code>Position.WHITE</code> or
+	 * <code>Position.BLACK</code>)
+	 * @return The two (or one on the edge) squares diagonally in front of the pawn
+	 */
+	public static long pawnAttacks(int sq, int side){
+		return PAWN_ATTACKS[side][sq];
+	}
+
+	/**
+	 *
+	 * @param bb The knights
+	 * @return Every square attacked by at least one of the knights
+	 */
+	public static long knightAttackSet(long bb){
+		long one = ((bb << 1) & ~FILE_A) | ((bb >>> 1) & ~FILE_H);
+		long two = ((bb << 2) & ~(FILE_A | FILE_B)) | ((bb >>> 2) & ~(FILE_G | FILE_H));
+		return (one << 16) | (one >>> 16) | (two << 8) | (two >>> 8);
+	}
+
+	/**
+	 *
+	 * @param bb The kings
+	 * @return Every square next to at least one of the kings
+	 */
+	public static long kingAttackSet(long bb){
+		long sides = shift(bb, Location.EAST) | shift(bb, Location.WEST);
+		long row = bb | sides;
+		return sides | (row << 8) | (row >>> 8);
+	}
+
+	/**
+	 *
+	 * @param bb The pawns
+	 * @param side The side of the pawns (<code>Position.WHITE</code> or
+	 * <code>Position.BLACK</code>)
+	 * @return Every square diagonally in front of at least one of the pawns
+	 */
+	public static long pawnAttackSet(long bb, int side){
+		if(side == Position.WHITE)
+			return shift(bb, Location.NORTHEAST) | shift(bb, Location.NORTHWEST);
+		return shift(bb, Location.SOUTHEAST) | shift(bb, Location.SOUTHWEST);
+	}
+}
@@ -1,7 +1,8 @@
+package com.sfleischer.chess.engine;
+
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.Stack;
 import java.util.TreeSet;
 
 /**
@@ -19,24 +20,17 @@ public class ChessModel {
 	public static final int KNIGHT = 3;
 	
 	//game state
-	private Piece[][] board; //encapsulates the state of the board
+	private Piece[][] board; //the piece objects on each square (used by the board UI)
+	private Position position; //the bitboards that all queries are answered from
 	private Player white; //the player playing white
 	private Player black; //the player playing black
 	private Player player; //the current player who is moving
 	private List<String> whiteNotation; //notates white's side
 	private List<String> blackNotation; //notates black's side
-	private King whiteKing; //useful for quickening check calculations
-	private King blackKing; 
-	private Piece passantable; //the pawn that can be captured by en passant
-	//private Piece back; //a copy of the piece in case the user wants a takeback or
-						//when the getLegalMoves method is calculating
-	//private Piece current; //the most recent piece moved. Used for takebacks
-	private Pawn promoting; //the pawn that's currently promoting
+	private boolean promoting; //true while the player picks the piece to promote to
+	private int[] moveBuffer; //scratch space for generating moves
+	private GameClock clock; //the clock of the game or null if it is not timed
 	List<MoveListener> moveListeners;
-	Stack<Pair> moves; //keeps track of all the moves made in the game
-	
-	int white_points = 74;
-	int black_points = 74;
 	
 	/**
 	 * Creates a fresh chess board with all the pieces in their initial places
@@ -45,10 +39,10 @@ public class ChessModel {
 	 */
 	public ChessModel(Player white, Player black){
 		board = new Piece[8][8];
+		moveBuffer = new int[MoveGenerator.MAX_MOVES];
 		whiteNotation = new LinkedList<String>();
 		blackNotation = new LinkedList<String>();
 		moveListeners = new LinkedList<MoveListener>();
-		moves = new Stack<Pair>();
 		if(white.side == Polarity.White){
 			this.white = white;
 			this.black = black;
@@ -60,66 +54,43 @@ public class ChessModel {
 		
 		//instantiate pawns
 		for(int i = 0; i < board.length; i++){
-			board[1][i] = new Pawn(new Location(1, i), Polarity.White);
-			board[6][i] = new Pawn(new Location(6, i), Polarity.Black);
+			board[1][i] = new Pawn(Location.of(1, i), Polarity.White);
+			board[6][i] = new Pawn(Location.of(6, i), Polarity.Black);
 		}
 		
-		board[0][0] = new Rook(new Location(0, 0), Polarity.White);
-		board[0][1] = new Knight(new Location(0, 1), Polarity.White);
-		board[0][2] = new Bishop(new Location(0, 2), Polarity.White);
-		board[0][3] = new Queen(new Location(0, 3), Polarity.White);
-		board[0][4] = new King(new Location(0, 4), Polarity.White);
-		board[0][5] = new Bishop(new Location(0, 5), Polarity.White);
-		board[0][6] = new Knight(new Location(0, 6), Polarity.White);
-		board[0][7] = new Rook(new Location(0, 7), Polarity.White);
+		board[0][0] = new Rook(Location.of(0, 0), Polarity.White);
+		board[0][1] = new Knight(Location.of(0, 1), Polarity.White);
+		board[0][2] = new Bishop(Location.of(0, 2), Polarity.White);
+		board[0][3] = new Queen(Location.of(0, 3), Polarity.White);
+		board[0][4] = new King(Location.of(0, 4), Polarity.White);
+		board[0][5] = new Bishop(Location.of(0, 5), Polarity.White);
+		board[0][6] = new Knight(Location.of(0, 6), Polarity.White);
+		board[0][7] = new Rook(Location.of(0, 7), Polarity.White);
 		
-		board[7][0] = new Rook(new Location(7, 0), Polarity.Black);
-		board[7][1] = new Knight(new Location(7, 1), Polarity.Black);
-		board[7][2] = new Bishop(new Location(7, 2), Polarity.Black);
-		board[7][3] = new Queen(new Location(7, 3), Polarity.Black);
-		board[7][4] = new King(new Location(7, 4), Polarity.Black);
-		board[7][5] = new Bishop(new Location(7, 5), Polarity.Black);
-		board[7][6] = new Knight(new Location(7, 6), Polarity.Black);
-		board[7][7] = new Rook(new Location(7, 7), Polarity.Black);
+		board[7][0] = new Rook(Location.of(7, 0), Polarity.Black);
+		board[7][1] = new Knight(Location.of(7, 1), Polarity.Black);
+		board[7][2] = new Bishop(Location.of(7, 2), Polarity.Black);
+		board[7][3] = new Queen(Location.of(7, 3), Polarity.Black);
+		board[7][4] = new King(Location.of(7, 4), Polarity.Black);
+		board[7][5] = new Bishop(Location.of(7, 5), Polarity.Black);
+		board[7][6] = new Knight(Location.of(7, 6), Polarity.Black);
+		board[7][7] = new Rook(Location.of(7, 7), Polarity.Black);
 		
-		whiteKing = (King) board[0][4];
-		blackKing = (King) board[7][4];
+		position = createPosition(board);
 	}
 	
 	/**
-	 * This is the alternate constructor that takes in an array of chess pieces. 
+	 * This is the alternate constructor that takes in a position. 
 	 * This is kind of like a copy constructor. It is not a full constructor 
 	 * because it does not initialize <code> player </code>,
 	 * <code> white </code>, or <code> black </code> global variables
-	 * It creates its own promoter. It does not initialize 
-	 * @param model A 2D array of chess pieces to create a new ChessModel object with
+	 * @param position The position to create a new ChessModel object with
 	 */
-	public ChessModel(Piece[][] model, Stack<Pair> moves){
-		board = model;
-		this.moves = moves;
-		
-		for(int i = 0; i < 8; i++){
-			for(int j = 0; j < 8; j++){
-				Piece p = board[i][j];
-				if(p != null && p instanceof King){
-					if(p.getPolarity() == Polarity.White){
-						whiteKing = (King) p;
-						white_points += p.worth;
-					} else
-						blackKing = (King) p;
-						white_points += p.worth;
-				}
-				
-				if(p!= null){
-					if(p.getPolarity() == Polarity.White){
-						white_points += p.worth;
-					} else{
-						black_points += p.worth;
-					}
-			
-				}
-			}
-		}
+	public ChessModel(Position position){
+		this.position = position;
+		board = new Piece[8][8];
+		moveBuffer = new int[MoveGenerator.MAX_MOVES];
+		syncBoard();
 	}
 	
 	/**
@@ -128,31 +99,82 @@ public class ChessModel {
 	 * @return A deep copy of the current ChessModel
 	 */
 	public ChessModel copy(){
-		int row = board.length;
-		int col = board[0].length;
-		
-		Piece[][] model = new Piece[row][col];
-		for(int i = 0; i < row; i++){
-			for(int j = 0; j < col; j++){
-				if(board[i][j] == null)
-					continue;
-				model[i][j] = board[i][j].copy();
+		return new ChessModel(position.copy());
+	}
+	
+	/**
+	 * Builds the bitboards from a 2D array of chess pieces. A side keeps the right to
+	 * castle on a wing when its king and that rook are still on their first squares.
+	 * @param model The pieces to place in the position
+	 * @return A position with the same pieces on the same squares and white to move
+	 */
+	private static Position createPosition(Piece[][] model){
+		Position pos = new Position();
+		for(int row = 0; row < 8; row++){
+			for(int col = 0; col < 8; col++){
+				if(model[row][col] != null)
+					pos.addPiece(model[row][col].getCode(), Bitboard.square(row, col));
 			}
 		}
 		
-		LinkedList<Pair> list = new LinkedList<Pair>();
-		Stack<Pair> stack = new Stack<Pair>();
-		while(!stack.isEmpty()){
-			Pair p = moves.pop();
-			Piece to = p.to.copy();
-			Piece from = p.from.copy();
-			list.add(new Pair(to, from));
+		int castling = 0;
+		int[] rights = {Position.WHITE_KINGSIDE, Position.WHITE_QUEENSIDE,
+				Position.BLACK_KINGSIDE, Position.BLACK_QUEENSIDE};
+		int[] rooks = {7, 0, 63, 56};
+		for(int i = 0; i < rights.length; i++){
+			int side = i < 2 ? Position.WHITE : Position.BLACK;
+			int king = side == Position.WHITE ? 4 : 60;
+			if(pos.pieceAt(king) == Position.code(side, Position.KING)
+					&& pos.pieceAt(rooks[i]) == Position.code(side, Position.ROOK))
+				castling |= rights[i];
 		}
-		
-		while(!list.isEmpty()){
-			stack.add(list.remove(0));
+		pos.setCastling(castling);
+		return pos;
+	}
+	
+	/**
+	 * Creates the piece object for a piece code in the position
+	 * @param code The code of the piece
+	 * @param loc The location of the piece
+	 * @return The new piece
+	 */
+	private static Piece createPiece(int code, Location loc){
+		Polarity side = Position.polarity(Position.sideOf(code));
+		switch(Position.typeOf(code)){
+		case Position.PAWN: return new Pawn(loc, side);
+		case Position.KNIGHT: return new Knight(loc, side);
+		case Position.BISHOP: return new Bishop(loc, side);
+		case Position.ROOK: return new Rook(loc, side);
+		case Position.QUEEN: return new Queen(loc, side);
+		default: return new King(loc, side);
+		}
+	}
+	
+	/**
+	 * Brings the piece objects up to date with the position. Squares that already
+	 * hold the right kind of piece keep their object so the board UI can keep
+	 * comparing pieces by reference.
+	 */
+	private void syncBoard(){
+		for(int sq = 0; sq < 64; sq++){
+			Piece p = board[sq >>> 3][sq & 7];
+			int code = position.pieceAt(sq);
+			if(code == Position.EMPTY)
+				board[sq >>> 3][sq & 7] = null;
+			else if(p == null || p.getCode() != code)
+				board[sq >>> 3][sq & 7] = createPiece(code, Bitboard.location(sq));
 		}
-		return new ChessModel(model, stack);
+	}
+	
+	/**
+	 * Moves a piece object from one square to another without touching the position
+	 */
+	private void moveBoardPiece(int from, int to){
+		Piece p = board[from >>> 3][from & 7];
+		board[from >>> 3][from & 7] = null;
+		board[to >>> 3][to & 7] = p;
+		if(p != null)
+			p.move(Bitboard.location(to));
 	}
 	
 	/*********************************************************************************
@@ -168,7 +190,7 @@ public class ChessModel {
 	public boolean doesPieceExistAt(Location loc){
 		if(Location.isLocationOutOfBounds(loc))
 			return false;
-		return board[loc.getRow()][loc.getColumn()] != null;
+		return (position.getOccupied() & Bitboard.bit(Bitboard.square(loc))) != 0;
 	}
 	
 	/**
@@ -192,6 +214,10 @@ public class ChessModel {
 	 * piece.getLocation() is structurally equal to loc.
 	 */
 	public void setPiece(Piece p, Location loc){
+		int sq = Bitboard.square(loc);
+		position.removePiece(sq);
+		if(p != null)
+			position.addPiece(p.getCode(), sq);
 		board[loc.row][loc.col] = p;
 	}
 	
@@ -205,26 +231,57 @@ public class ChessModel {
 		return board[row][col];
 	}
 	
+	/**
+	 * 
+	 * @return The bitboard representation of the board
+	 */
+	public Position getPosition(){
+		return position;
+	}
+
+	/**
+	 * The hash is kept up to date by every move, takeback and promotion, so this is
+	 * free to call as often as needed.
+	 * @return The Zobrist hash of the current position
+	 */
+	public long getHash(){
+		return position.getHash();
+	}
+	
 	/**
 	 * 
 	 * @return The location of the current piece
 	 */
 	public Location getCurrentLocation(){
-		if(moves.isEmpty())
+		int move = position.getLastMove();
+		if(move == Move.NONE)
 			return null;
-		return moves.peek().to.getLocation();
+		return Bitboard.location(Move.to(move));
 	}
 	/**
 	 * 
 	 * @return The location of the takeback piece
 	 */
 	public Location getTakebackLocation(){
-		if(moves.isEmpty())
+		int move = position.getLastMove();
+		if(move == Move.NONE)
 			return null;
-		return moves.peek().from.getLocation();
+		return Bitboard.location(Move.from(move));
 	}
 	
 
+	/**
+	 * 
+	 * @return The clock of the game or null if the game is not timed
+	 */
+	public GameClock getClock(){
+		return clock;
+	}
+	
+	public void setClock(GameClock c){
+		clock = c;
+	}
+	
 	public void addMoveListener(MoveListener m){
 		moveListeners.add(m);
 	}
@@ -242,11 +299,22 @@ public class ChessModel {
 	}
 	
 	public int getWhitePoints(){
-		return white_points;
+		return position.getMaterial(Position.WHITE);
 	}
 	
 	public int getBlackPoints(){
-		return black_points;
+		return position.getMaterial(Position.BLACK);
+	}
+	
+	/**
+	 * Plays out every capture on the square the piece moves to, each side taking with
+	 * its cheapest piece (see <code>Position.see</code>)
+	 * @param start The location the capturing piece moves from
+	 * @param end The location of the piece it takes
+	 * @return What the side to move wins in centipawns, below 0 for a losing capture
+	 */
+	public int staticExchange(Location start, Location end){
+		return position.see(createMove(start, end));
 	}
 	
 	
@@ -259,57 +327,37 @@ public class ChessModel {
 	 * the movement on the appropriate notation list.
 	 * @param start The starting location of the piece
 	 * @param end The ending location of the piece
-	 * @return True if the move was successful. False if the move was unsuccessful.
-	 * Some examples of unsuccessful moves include out-of-bounds locations or null
-	 * pieces.
+	 * @return The worth of the captured piece (0 when nothing was captured) or -1 if
+	 * the move was unsuccessful. Some examples of unsuccessful moves include
+	 * out-of-bounds locations or null pieces.
 	 */
 	public int movePiece(Location start, Location end){
 		//check for any invalid arguments
 		if(Location.isLocationOutOfBounds(start) || Location.isLocationOutOfBounds(end))
 			return -1;
 		
-		Piece p = board[start.row][start.col];
-		if(p == null)
+		int from = Bitboard.square(start);
+		int to = Bitboard.square(end);
+		if(position.pieceAt(from) == Position.EMPTY)
 			return -1;
 		
-		//move the piece
-		Piece capture = board[end.row][end.col];
-		board[start.row][start.col] = null;
-		board[end.row][end.col] = p;
-				
-		//save a backup of the piece
-		Piece back = p.copy();
-		
-		//tell the piece it moved
-		p.move(end);
-		//current = p;
+		//pawns promote to a queen unless the player picks something else
+		int move = position.createMove(from, to, Position.QUEEN);
+		int worth = 0;
+		if(Move.flags(move) == Move.EN_PASSANT)
+			worth = Pawn.WORTH;
+		else if(Move.isCapture(move))
+			worth = Position.WORTH[Position.typeOf(position.pieceAt(to))];
 		
-		//log that move
-		if(capture == null)
-			moves.add(new Pair(back, p.copy()));
-		else
-			moves.add(new Pair(back, capture));
+		position.makeMove(move);
+		moveBoardPiece(from, to);
+		syncBoard();
 		
-		//check for special moves
-		if(p instanceof Pawn){
-			Pawn pawn = (Pawn) p;
-			checkEnPassantCapture(pawn);
-			if(pawn.isFresh()) {
-				passantable = pawn;
-			} else {
-				passantable = null; 
-			}
-			if(pawn.isPromotable() && player != null){
-				promoting = pawn; //set this variable
-				player.promote(); //notify handler that pawn is promoting
-			}
-		} else if(p instanceof King){
-			castle((King) p);
-			passantable = null;
-		} else {
-			//if there are any passantable pawns there aren't any now
-			passantable = null;
-		} 
+		if(Move.isPromotion(move) && player != null){
+			promoting = true;
+			player.promote(); //notify handler that pawn is promoting
+			promoting = false;
+		}
 		
 		//switch players
 		if(white != null){
@@ -321,66 +369,53 @@ public class ChessModel {
 		if(moveListeners != null)
 			dispatchMove(); //update the timers
 		
-		if(capture != null){
-			if(capture.getPolarity() == Polarity.White){
-				white_points -= capture.worth;
-			} else {
-				black_points -= capture.worth;
-			}
-			return capture.worth;
-		}
-		return 0;
-	}
-	
-	public void castle(King king){
-		if(king.didQueenSideCastle()){
-			Location loc = king.getLocation();
-			Piece rook = getPiece(loc.row, loc.col - 2);
-			if(rook == null)
-				return;
-			Location oldRook = rook.getLocation();
-			Location newRook = new Location(loc.row, loc.col + 1);
-			rook.move(newRook);
-			board[oldRook.row][oldRook.col] = null;
-			board[newRook.row][newRook.col] = rook;
-			
-		} else if(king.didKingSideCastle()){
-			Location loc = king.getLocation();
-			Piece rook = getPiece(loc.row, loc.col + 1);
-			if(rook == null)
-				return;
-			Location oldRook = rook.getLocation();
-			Location newRook = new Location(loc.row, loc.col - 1);
-			rook.move(newRook);
-			board[oldRook.row][oldRook.col] = null;
-			board[newRook.row][newRook.col] = rook;
-		}
+		return worth;
 	}
 	
 	/**
-	 * Given a moved pawn p, check to see if it made a valid en passant move.
-	 * Kill the pawn that died.
-	 * @param p
+	 * Plays the move on the position in place. The piece objects of the board are
+	 * not updated, so every call must be paired with <code>unmakeMove</code> before
+	 * the board is drawn again. Use this for legality checks and searching.
+	 * @param move The packed move to play
 	 */
-	public void checkEnPassantCapture(Pawn p){
-		Location loc = p.getLocation();
-		Polarity side = p.getPolarity();
-		
-		//kill the pawn if it is an en passant
-		//note that the direction is backwards
-		int direction;
-		if(side == Polarity.White){
-			direction = Location.SOUTH;
-		}
-		else{
-			direction = Location.NORTH;
-		}
-		
-		Piece n = getPiece(loc.getAdjacentLocation(direction));
-		//we want to make sure n is reference equal with passantable
-		if(n != null && n == passantable){
-			killPiece(loc.getAdjacentLocation(direction));
-		}
+	public void makeMove(int move){
+		position.makeMove(move);
+	}
+	
+	/**
+	 * Takes back the last move played with <code>makeMove</code>
+	 */
+	public void unmakeMove(){
+		position.unmakeMove();
+	}
+	
+	/**
+	 * Writes every legal move of the side to move into the array
+	 * @param moves An array with room for <code>MoveGenerator.MAX_MOVES</code> moves
+	 * @return The number of moves written
+	 */
+	public int generateLegalMoves(int[] moves){
+		return MoveGenerator.generateLegal(position, moves, 0);
+	}
+	
+	/**
+	 * 
+	 * @return A scratch array for <code>generateLegalMoves</code>. Its contents are
+	 * overwritten by the next call that uses it.
+	 */
+	public int[] getMoveBuffer(){
+		return moveBuffer;
+	}
+	
+	/**
+	 * 
+	 * @param start The location the piece moves from
+	 * @param end The location the piece moves to
+	 * @return The packed move (pawns promote to a queen)
+	 */
+	public int createMove(Location start, Location end){
+		return position.createMove(Bitboard.square(start), Bitboard.square(end),
+				Position.QUEEN);
 	}
 	
 	/**
@@ -388,41 +423,13 @@ public class ChessModel {
 	 */
 	public void takeback(){
 		// This keyboard is way better than my keyboard
-		if(moves == null || moves.isEmpty()){
+		if(position.getPly() == 0){
 			return;
 		}
-		Pair p = moves.pop();
-		Piece to = p.getTo();
-		Piece from = p.getFrom();
-		killPiece(to.getLocation());
-		if(to.getPolarity() != from.getPolarity()){
-			setPiece(to, to.getLocation()); //add the killed piece
-			if(to.getPolarity() == Polarity.White)
-				white_points += to.worth;
-			else
-				black_points += to.worth;
-		}
-		setPiece(from, from.getLocation());
-		//current = back;
-		//update king pointers
-		if(from instanceof King && from.getPolarity() == Polarity.White ){
-			whiteKing = (King) from;
-			if(to instanceof King ){
-				Location k = to.getLocation();
-				int dist = from.getLocation().col - to.getLocation().col;
-				if(dist == 2){
-					Location n = new Location(k.row, k.col + 1);
-					killPiece(new Location(k.row, k.col - 1));
-					setPiece(new Rook(n, to.getPolarity()), n);
-				} else if(dist == -2){
-					Location n = new Location(k.row, k.col - 2);
-					killPiece(new Location(k.row, k.col + 1));
-					setPiece(new Rook(n, to.getPolarity()), n);
-				}
-			}
-		} else if(from instanceof King){
-			blackKing = (King) from;
-		}
+		int move = position.getLastMove();
+		position.unmakeMove();
+		moveBoardPiece(Move.to(move), Move.from(move));
+		syncBoard();
 		
 		//switch players
 		if(white != null){
@@ -444,29 +451,30 @@ public class ChessModel {
 	 */
 	public void promotePawn(int n){
 		//there must be a promoting pawn
-		if(promoting == null)
+		if(!promoting)
 			return;
-		Location loc = promoting.getLocation();
-		Polarity side = promoting.getPolarity();
+		int type;
 		switch(n){
-		case QUEEN:
-			setPiece(new Queen(loc, side), loc);
-			break;
 		case ROOK:
-			setPiece(new Rook(loc, side), loc);
+			type = Position.ROOK;
 			break;
 		case BISHOP:
-			setPiece(new Bishop(loc, side), loc);
+			type = Position.BISHOP;
 			break;
 		case KNIGHT:
-			setPiece(new Knight(loc, side), loc);
+			type = Position.KNIGHT;
 			break;
 		default:
-			setPiece(new Queen(loc, side), loc);
+			type = Position.QUEEN;
 			break;
 		}
 		
-		promoting = null; //there is no promoting pawn. feed to garbage
+		//replay the promotion with the chosen piece
+		int move = position.getLastMove();
+		position.unmakeMove();
+		position.makeMove(Move.promotion(Move.from(move), Move.to(move), type,
+				Move.isCapture(move)));
+		syncBoard();
 	}
 
 	
@@ -482,13 +490,8 @@ public class ChessModel {
 	 * @return True if it is threatened, and false otherwise
 	 */
 	public boolean isLocationThreatened(Location loc, Polarity side){
-		for(Piece p : getPlayersPieces(Polarity.opposite(side))){
-			Set<Location> moves = p.getPreliminaryMoves(this);
-			if(moves.contains(loc))
-				return true;
-			
-		}
-		return false;
+		int enemy = Position.side(Polarity.opposite(side));
+		return position.isSquareAttacked(Bitboard.square(loc), enemy);
 	}
 	
 	/**
@@ -515,13 +518,7 @@ public class ChessModel {
 	 * @return The location of the King piece
 	 */
 	public Location findLocationOfPlayerKing(Polarity side){
-		King king;
-		if(side == Polarity.White){
-			king = whiteKing;
-		} else {
-			king = blackKing;
-		}
-		return king.getLocation();
+		return Bitboard.location(position.kingSquare(Position.side(side)));
 	}
 	
 	/**
@@ -529,9 +526,11 @@ public class ChessModel {
 	 * @return The location of the passant pawn. Can either be null or defined.
 	 */
 	public Location getPassantLocation(){
-		if(passantable == null)
+		int ep = position.getEnPassant();
+		if(ep == -1)
 			return null;
-		return passantable.getLocation();
+		//the pawn stands one square past the square it skipped
+		return Bitboard.location(ep < 32 ? ep + 8 : ep - 8);
 	}
 	
 	/*********************************************************************************
@@ -554,16 +553,11 @@ public class ChessModel {
 	 * @return True if the player is in checkmate and false otherwise
 	 */
 	public boolean isPlayerCheckmated(Polarity side){
-		if(!isPlayerInCheck(side)){
+		//a player can only run out of moves on their own turn
+		if(side != getCurrentSide() || !isPlayerInCheck(side)){
 			return false;
-		} else{
-			Set<Piece> set = getPlayersPieces(side);
-			for(Piece p : set){
-				if(!p.getLegalMoves(this).isEmpty())
-					return false;
-			}
 		}
-		return true;
+		return !MoveGenerator.hasLegalMove(position, moveBuffer);
 	}
 	
 	/**
@@ -572,16 +566,10 @@ public class ChessModel {
 	 * @return True if the player is in stalemate and false otherwise
 	 */
 	public boolean isPlayerStalemated(Polarity side){
-		if(isPlayerInCheck(side)){
+		if(side != getCurrentSide() || isPlayerInCheck(side)){
 			return false;
-		} else {
-			Set<Piece> set = getPlayersPieces(side);
-			for(Piece p : set){
-				if(!p.getLegalMoves(this).isEmpty())
-					return false;
-			}
 		}
-		return true;
+		return !MoveGenerator.hasLegalMove(position, moveBuffer);
 	}
 	
 	/*********************************************************************************
@@ -596,20 +584,17 @@ public class ChessModel {
 	 */
 	public Set<Piece> getPlayersPieces(Polarity side){
 		Set<Piece> set = new TreeSet<Piece>();
-		for(int row = 0; row < board.length; row++){
-			for(int col = 0; col < board[0].length; col++){
-				Piece p = board[row][col];
-				if(p == null || p.getPolarity() != side)
-					continue;
-				else
-					set.add(p);
-			}
+		long bb = position.getOccupancy(Position.side(side));
+		while(bb != 0){
+			int sq = Long.numberOfTrailingZeros(bb);
+			set.add(board[sq >>> 3][sq & 7]);
+			bb &= bb - 1;
 		}
 		return set;
 	}
 	
 	public Polarity getCurrentSide(){
-		return (player == white) ? Polarity.White : Polarity.Black;
+		return Position.polarity(position.getSide());
 	}
 	
 	public void dispatchMove(){
@@ -648,7 +633,7 @@ public class ChessModel {
 		Piece p = board[loc.row][loc.col];
 		if(p == null)
 			return 0;
-		board[loc.row][loc.col] = null;
+		setPiece(null, loc);
 		return p.worth;
 	}
 	
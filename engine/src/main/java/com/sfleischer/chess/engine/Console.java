@@ -0,0 +1,146 @@
+package com.sfleischer.chess.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import com.sfleischer.chess.engine.search.AI;
+
+/**
+ * Plays against the computer in a terminal. Moves are typed in coordinate notation
+ * (e2e4, or e7e8n to pick the promotion piece) and the computer answers with its
+ * own move. This is the entry point of the headless jar, so nothing here may touch
+ * AWT or Swing.
+ * Usage: <code>java -jar engine-headless.jar [white|black]</code>
+ * @author sfleischer
+ *
+ */
+public class Console extends Player implements MoveListener{
+
+	private int promotion = ChessModel.QUEEN; //the piece picked for the next promotion
+	private boolean finished; //true once the computer has no move left to answer with
+
+	public Console(Polarity p){
+		super(p);
+		canMove = true;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException{
+		Polarity side = args.length > 0 && args[0].equalsIgnoreCase("black") ?
+				Polarity.Black : Polarity.White;
+		Console person = new Console(side);
+		AI ai = new AI(Polarity.opposite(side));
+		ChessModel model = new ChessModel(person, ai);
+		person.setModel(model);
+		ai.setModel(model);
+		model.addMoveListener(person);
+		if(side == Polarity.Black)
+			ai.move();
+		person.play(new BufferedReader(new InputStreamReader(System.in)));
+	}
+
+	/**
+	 * Reads moves until the game ends or the input runs out
+	 * @param in The moves of the person
+	 */
+	public void play(BufferedReader in) throws IOException, InterruptedException{
+		while(true){
+			waitForTurn();
+			int reply = model.getPosition().getLastMove();
+			if(reply != Move.NONE && model.getCurrentSide() == side)
+				System.out.println(Polarity.opposite(side) + " plays " + Move.toString(reply));
+			System.out.println(model.getPosition());
+			if(isGameOver())
+				return;
+			System.out.print(side + " to move: ");
+			String line = in.readLine();
+			if(line == null || line.trim().equals("quit"))
+				return;
+			int move = findMove(line.trim().toLowerCase());
+			if(move == Move.NONE){
+				System.out.println("Illegal move " + line.trim());
+				continue;
+			}
+			promotion = Move.isPromotion(move) ?
+					promotionId(Move.promotionType(move)) : ChessModel.QUEEN;
+			
+			//the computer starts thinking as soon as the move is played, so whether it
+			//has an answer at all is worked out on a copy beforehand
+			Position next = model.getPosition().copy();
+			next.makeMove(move);
+			finished = !MoveGenerator.hasLegalMove(next, new int[MoveGenerator.MAX_MOVES]);
+			model.movePiece(Bitboard.location(Move.from(move)),
+					Bitboard.location(Move.to(move)));
+		}
+	}
+
+	/**
+	 * @param text A move in coordinate notation
+	 * @return The legal move with the same notation or <code>Move.NONE</code>
+	 */
+	private int findMove(String text){
+		int[] moves = model.getMoveBuffer();
+		int count = model.generateLegalMoves(moves);
+		for(int i = 0; i < count; i++){
+			//a pawn reaching the last rank without a letter becomes a queen
+			String notation = Move.toString(moves[i]);
+			if(notation.equals(text) || notation.equals(text + "q"))
+				return moves[i];
+		}
+		return Move.NONE;
+	}
+
+	/**
+	 * @param type The piece type in <code>Position</code>
+	 * @return The matching piece ID of <code>ChessModel.promotePawn</code>
+	 */
+	private static int promotionId(int type){
+		switch(type){
+		case Position.KNIGHT: return ChessModel.KNIGHT;
+		case Position.BISHOP: return ChessModel.BISHOP;
+		case Position.ROOK: return ChessModel.ROOK;
+		default: return ChessModel.QUEEN;
+		}
+	}
+
+	private boolean isGameOver(){
+		Polarity current = model.getCurrentSide();
+		if(model.isPlayerCheckmated(current)){
+			System.out.println(Polarity.opposite(current) + " wins!");
+			return true;
+		}
+		if(model.isPlayerStalemated(current)){
+			System.out.println("Stalemate!");
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Blocks while the computer is thinking
+	 */
+	private synchronized void waitForTurn() throws InterruptedException{
+		while(model.getCurrentSide() != side && !finished)
+			wait();
+	}
+
+	@Override
+	public synchronized void moved(){
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void pause(){
+		notifyAll();
+	}
+
+	@Override
+	public void move(){
+		//the person types their move when it is their turn
+	}
+
+	@Override
+	public void promote(){
+		model.promotePawn(promotion);
+	}
+}
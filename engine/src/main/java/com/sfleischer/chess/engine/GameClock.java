@@ -0,0 +1,91 @@
+package com.sfleischer.chess.engine;
+
+/**
+ * A chess clock. Each side has its own time that only runs down while it is that side's
+ * turn, and a side gets the increment back every time it hands the turn over. The clock
+ * is read by the board to show the time and by the computer to plan how long it may
+ * think, so every method is synchronized.
+ * @author sfleischer
+ *
+ */
+public class GameClock {
+
+	private final long[] remaining; //the time left of each side when its clock stopped
+	private final long increment; //the time added after every move
+	private int running; //the side whose clock runs or -1
+	private long since; //when the running clock started (System.nanoTime)
+
+	/**
+	 *
+	 * @param millis The time each side starts with in milliseconds
+	 * @param increment The time added after every move in milliseconds
+	 */
+	public GameClock(long millis, long increment){
+		remaining = new long[]{millis, millis};
+		this.increment = increment;
+		running = -1;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ACCESSOR METHODS --------------------------------
+	 ********************************************************************************/
+
+	/**
+	 *
+	 * @param side The side
+	 * @return The time the side has left in milliseconds, never less than 0
+	 */
+	public synchronized long getRemaining(Polarity side){
+		int s = Position.side(side);
+		long left = remaining[s];
+		if(s == running)
+			left -= (System.nanoTime() - since) / 1000000;
+		return Math.max(left, 0);
+	}
+
+	public long getIncrement(){
+		return increment;
+	}
+
+	/**
+	 *
+	 * @return The side whose clock is running or null if both are stopped
+	 */
+	public synchronized Polarity getRunningSide(){
+		return running == -1 ? null : Position.polarity(running);
+	}
+
+	/**
+	 *
+	 * @return True if the side whose clock runs has no time left
+	 */
+	public synchronized boolean isFlagged(){
+		return running != -1 && getRemaining(Position.polarity(running)) == 0;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- MUTATOR METHODS ---------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Stops the running clock, gives that side its increment and starts the clock of
+	 * the given side
+	 * @param side The side that is to move now
+	 */
+	public synchronized void switchTo(Polarity side){
+		if(running != -1){
+			remaining[running] = getRemaining(Position.polarity(running)) + increment;
+		}
+		running = Position.side(side);
+		since = System.nanoTime();
+	}
+
+	/**
+	 * Stops both clocks, for example when the game is over
+	 */
+	public synchronized void stop(){
+		if(running != -1)
+			remaining[running] = getRemaining(Position.polarity(running));
+		running = -1;
+	}
+}
@@ -0,0 +1,42 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Set;
+
+public class King extends Piece{
+
+	public static final int WORTH = 35;
+	
+	public King(Location loc, Polarity p){
+		super(loc, WORTH, p);
+	}
+	
+	@Override
+	public Set<Location> getPreliminaryMoves(ChessModel model) {
+		Position pos = model.getPosition();
+		long own = pos.getOccupancy(Position.side(side));
+		long targets = Bitboard.kingAttacks(getSquare()) & ~own;
+		return Bitboard.toLocations(targets);
+	}
+	
+	@Override
+	public int getType() {
+		return Position.KING;
+	}
+	
+	@Override
+	public Set<Location> getPremoveLocations(){
+		Set<Location> set = Bitboard.toLocations(Bitboard.kingAttacks(getSquare()));
+		
+		//add castling option while the king is on its first square
+		if(loc.col == 4 && loc.row == (side == Polarity.White ? 0 : 7)){
+			set.add(Location.of(loc.row, loc.col-2));
+			set.add(Location.of(loc.row, loc.col+2));
+		}
+		return set;
+	}
+	
+	@Override
+	public Piece copy() {
+		return new King(loc, side);
+	}
+}
@@ -0,0 +1,35 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Set;
+
+public class Knight extends Piece{
+
+	public static final int WORTH = 3;
+	
+	public Knight(Location loc, Polarity p){
+		super(loc, WORTH, p);
+	}
+	
+	@Override
+	public Set<Location> getPreliminaryMoves(ChessModel model) {
+		Position pos = model.getPosition();
+		long own = pos.getOccupancy(Position.side(side));
+		long targets = Bitboard.knightAttacks(getSquare()) & ~own;
+		return Bitboard.toLocations(targets);
+	}
+	
+	@Override
+	public int getType() {
+		return Position.KNIGHT;
+	}
+	
+	@Override
+	public Set<Location> getPremoveLocations() {
+		return Bitboard.toLocations(Bitboard.knightAttacks(getSquare()));
+	}
+	
+	@Override
+	public Piece copy() {
+		return new Knight(loc, side);
+	}
+}
@@ -0,0 +1,145 @@
+package com.sfleischer.chess.engine;
+
+/**
+ * This is an immutable location class. Locations on the board and on the one square
+ * border around it are shared instances from a table, so get them with
+ * <code>Location.of</code> instead of creating new ones.
+ * @author sfleischer
+ *
+ */
+public class Location implements Comparable<Location>{
+	public final int row; //keeps the chess location of the piece (row)
+	public final int col;
+	public final int rank;
+	public final int file;
+	
+	//cardinal constants
+	public static final int NORTH = 90;
+	public static final int EAST = 0;
+	public static final int WEST = 180;
+	public static final int SOUTH = 270;
+	public static final int NORTHEAST = 45;
+	public static final int NORTHWEST = 135;
+	public static final int SOUTHWEST = 225;
+	public static final int SOUTHEAST = 315;
+	
+	//row and column steps of each direction, indexed by direction / 45
+	private static final int[] ROW_STEP = {0, 1, 1, 1, 0, -1, -1, -1};
+	private static final int[] COL_STEP = {1, 1, 0, -1, -1, -1, 0, 1};
+	
+	//the shared locations of rows and columns -1 through 8
+	private static final Location[] TABLE = new Location[100];
+	//the neighbor of each square of the board, indexed by direction / 45 first
+	private static final Location[][] ADJACENT = new Location[8][64];
+	
+	static {
+		for(int row = -1; row <= 8; row++){
+			for(int col = -1; col <= 8; col++){
+				TABLE[(row + 1) * 10 + col + 1] = new Location(row, col);
+			}
+		}
+		for(int dir = 0; dir < 8; dir++){
+			for(int sq = 0; sq < 64; sq++){
+				ADJACENT[dir][sq] = of((sq >>> 3) + ROW_STEP[dir], (sq & 7) + COL_STEP[dir]);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param row
+	 * @param column
+	 */
+	private Location(int row, int column){
+		this.row = row;
+		this.col = column;
+		rank = row + 1;
+		file = col + 1;
+	}
+	
+	/**
+	 * 
+	 * @param row The row of the location
+	 * @param col The column of the location
+	 * @return The shared location. Only locations more than one square off the board
+	 * are created new.
+	 */
+	public static Location of(int row, int col){
+		if(row < -1 || row > 8 || col < -1 || col > 8)
+			return new Location(row, col);
+		return TABLE[(row + 1) * 10 + col + 1];
+	}
+	
+	/**
+	 * 
+	 * @param sq The bitboard square (row * 8 + column)
+	 * @return The shared location of the square
+	 */
+	public static Location of(int sq){
+		return TABLE[((sq >>> 3) + 1) * 10 + (sq & 7) + 1];
+	}
+	
+	/**
+	 * 
+	 * @param loc A location in notation (for example e4)
+	 * @return The shared location
+	 */
+	public static Location of(String loc){
+		char[] arr = loc.toLowerCase().toCharArray();
+		int col = (int) arr[0] - (int) 'a';
+		int row = Integer.parseInt(loc.substring(1)) - 1;
+		return of(row, col);
+	}
+	
+	public static boolean isLocationOutOfBounds(Location loc){
+		return loc.row < 0 || loc.row > 7 || loc.col < 0 || loc.col > 7;
+	}
+	
+	public Location getAdjacentLocation(int direction){
+		direction = (360 + direction) % 360;
+		if(direction % 45 != 0)
+			return null;
+		int dir = direction / 45;
+		if(isLocationOutOfBounds(this))
+			return of(row + ROW_STEP[dir], col + COL_STEP[dir]);
+		return ADJACENT[dir][row * 8 + col];
+	}
+	
+	public int getRow(){
+		return row;
+	}
+	
+	public int getColumn(){
+		return col;
+	}
+	
+	public String getNotation(){
+		char letter = (char) (col + (int) 'a');
+		return "" + letter + rank;
+	}
+	
+	@Override
+	public String toString(){
+		return "(" + row + ", " + col + ")";
+	}
+	
+	@Override
+	public boolean equals(Object o){
+		if(o == this)
+			return true; //shared locations are usually the same instance
+		if(o == null)
+			return false;
+		if(!o.getClass().equals(this.getClass()))
+			return false;
+		Location loc = (Location) o;
+		return loc.row == row && loc.col == col;
+	}
+
+	@Override
+	public int compareTo(Location loc) {
+		int dy = 8 * (this.row - loc.row);
+		int dx = (this.col - loc.col);
+		return dx + dy;
+	}
+	
+}
@@ -0,0 +1,97 @@
+package com.sfleischer.chess.engine;
+
+/**
+ * Moves are passed around as plain <code>int</code>s so that generating and searching
+ * them does not create any objects. The lowest six bits hold the square the piece
+ * moves from, the next six bits the square it moves to and the four bits above those
+ * are flags that describe special moves. This class only holds static helpers to pack
+ * and unpack them.
+ * @author sfleischer
+ *
+ */
+public final class Move {
+
+	//flags
+	public static final int QUIET = 0;
+	public static final int DOUBLE_PUSH = 1; //a pawn moved two forward
+	public static final int KING_CASTLE = 2;
+	public static final int QUEEN_CASTLE = 3;
+	public static final int CAPTURE = 4; //also set on en passant and promotion captures
+	public static final int EN_PASSANT = 5;
+	public static final int PROMOTION = 8; //the low two bits hold the new piece
+
+	public static final int NONE = 0; //a1 to a1 is never a real move
+
+	private Move(){}
+
+	/**
+	 *
+	 * @param from The square the piece moves from
+	 * @param to The square the piece moves to
+	 * @param flags The flags of the move
+	 * @return The packed move
+	 */
+	public static int encode(int from, int to, int flags){
+		return from | (to << 6) | (flags << 12);
+	}
+
+	/**
+	 *
+	 * @param from The square the pawn moves from
+	 * @param to The square the pawn moves to
+	 * @param type The piece type the pawn promotes to (knight through queen)
+	 * @param capture True if the pawn captures on the promotion square
+	 * @return The packed move
+	 */
+	public static int promotion(int from, int to, int type, boolean capture){
+		int flags = PROMOTION | (type - Position.KNIGHT) | (capture ? CAPTURE : 0);
+		return encode(from, to, flags);
+	}
+
+	public static int from(int move){
+		return move & 63;
+	}
+
+	public static int to(int move){
+		return (move >>> 6) & 63;
+	}
+
+	public static int flags(int move){
+		return (move >>> 12) & 15;
+	}
+
+	public static boolean isCapture(int move){
+		return (flags(move) & CAPTURE) != 0;
+	}
+
+	public static boolean isPromotion(int move){
+		return (flags(move) & PROMOTION) != 0;
+	}
+
+	public static boolean isCastle(int move){
+		int flags = flags(move);
+		return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+	}
+
+	/**
+	 * Precondition: the move is a promotion
+	 * @param move The move
+	 * @return The piece type the pawn promotes to
+	 */
+	public static int promotionType(int move){
+		return Position.KNIGHT + (flags(move) & 3);
+	}
+
+	/**
+	 *
+	 * @param move The move
+	 * @return The move in coordinate notation (for example e2e4 or e7e8q)
+	 */
+	public static String toString(int move){
+		String s = Bitboard.location(from(move)).getNotation()
+				+ Bitboard.location(to(move)).getNotation();
+		if(isPromotion(move))
+			s = s + "nbrq".charAt(promotionType(move) - Position.KNIGHT);
+		return s;
+	}
+}
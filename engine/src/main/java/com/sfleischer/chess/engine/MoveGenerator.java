@@ -0,0 +1,271 @@
+package com.sfleischer.chess.engine;
+
+/**
+ * Generates only legal moves. The pieces giving check and the pieces pinned to their
+ * own king are worked out once per position. A check narrows every non-king move to
+ * the checking piece and the squares between it and the king, and a pinned piece may
+ * only move along the line of its pin. En passant captures get one more test, since
+ * taking the pawn can uncover the king along a rank; it looks at the occupancy the
+ * capture would leave, so no move is ever played out on the position.
+ * @author sfleischer
+ *
+ */
+public final class MoveGenerator {
+
+	public static final int MAX_MOVES = 256; //no position has more legal moves
+
+	private MoveGenerator(){}
+
+	/**
+	 * Writes every legal move of the side to move into the array
+	 * @param pos The position to generate moves for
+	 * @param moves The array to write the moves into
+	 * @param start The first index to write to
+	 * @return The index after the last move written
+	 */
+	public static int generateLegal(Position pos, int[] moves, int start){
+		return generate(pos, moves, start, true);
+	}
+
+	/**
+	 * Writes the legal captures and promotions of the side to move into the array,
+	 * for a search that only wants to settle the exchanges on the board
+	 * @param pos The position to generate moves for
+	 * @param moves The array to write the moves into
+	 * @param start The first index to write to
+	 * @return The index after the last move written
+	 */
+	public static int generateCaptures(Position pos, int[] moves, int start){
+		return generate(pos, moves, start, false);
+	}
+
+	/**
+	 *
+	 * @param quiet True to generate every move, false for only captures and promotions
+	 */
+	private static int generate(Position pos, int[] moves, int start, boolean quiet){
+		int us = pos.getSide();
+		int them = us ^ 1;
+		int king = pos.kingSquare(us);
+		long occupied = pos.getOccupied();
+		long own = pos.getOccupancy(us);
+		long enemies = pos.getOccupancy(them);
+		long checkers = pos.attackersTo(king, them, occupied);
+		long filter = quiet ? -1L : enemies; //the squares a non-pawn move may go to
+		int n = start;
+
+		//the king may step to any square that is not attacked once it has left its
+		//own square (so it cannot hide behind itself from a slider)
+		long kingless = occupied ^ Bitboard.bit(king);
+		long targets = Bitboard.kingAttacks(king) & ~own & filter;
+		while(targets != 0){
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if(pos.attackersTo(to, them, kingless) == 0)
+				moves[n++] = Move.encode(king, to, capture(enemies, to));
+		}
+
+		//in double check only the king can move
+		if(Long.bitCount(checkers) > 1)
+			return n;
+
+		long checkMask = -1L;
+		if(checkers != 0){
+			int checker = Long.numberOfTrailingZeros(checkers);
+			checkMask = checkers | Bitboard.between(king, checker);
+		} else if(quiet){
+			n = generateCastling(pos, us, king, moves, n);
+		}
+
+		long pinned = findPinned(pos, us, king);
+		long movable = ~own & checkMask & filter;
+
+		//knights that are pinned can never move
+		long knights = pos.getPieces(us, Position.KNIGHT) & ~pinned;
+		while(knights != 0){
+			int from = Long.numberOfTrailingZeros(knights);
+			knights &= knights - 1;
+			n = addMoves(from, Bitboard.knightAttacks(from) & movable, enemies, moves, n);
+		}
+
+		long queens = pos.getPieces(us, Position.QUEEN);
+		long diagonal = pos.getPieces(us, Position.BISHOP) | queens;
+		while(diagonal != 0){
+			int from = Long.numberOfTrailingZeros(diagonal);
+			diagonal &= diagonal - 1;
+			long to = Bitboard.bishopAttacks(from, occupied) & movable
+					& pinMask(pinned, king, from);
+			n = addMoves(from, to, enemies, moves, n);
+		}
+
+		long straight = pos.getPieces(us, Position.ROOK) | queens;
+		while(straight != 0){
+			int from = Long.numberOfTrailingZeros(straight);
+			straight &= straight - 1;
+			long to = Bitboard.rookAttacks(from, occupied) & movable
+					& pinMask(pinned, king, from);
+			n = addMoves(from, to, enemies, moves, n);
+		}
+
+		return generatePawnMoves(pos, us, king, pinned, checkMask, quiet, moves, n);
+	}
+
+	/**
+	 *
+	 * @param pos The position
+	 * @param moves A scratch array with room for <code>MAX_MOVES</code> moves
+	 * @return True if the side to move has at least one legal move
+	 */
+	public static boolean hasLegalMove(Position pos, int[] moves){
+		return generateLegal(pos, moves, 0) > 0;
+	}
+
+	/*********************************************************************************
+	 -------------------------------- HELPER METHODS ---------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * A piece is pinned when it is the only piece between its king and an enemy
+	 * slider that would otherwise attack the king
+	 * @return The pinned pieces of the side
+	 */
+	private static long findPinned(Position pos, int us, int king){
+		int them = us ^ 1;
+		long enemies = pos.getOccupancy(them);
+		long queens = pos.getPieces(them, Position.QUEEN);
+		long snipers = (Bitboard.rookAttacks(king, enemies)
+				& (pos.getPieces(them, Position.ROOK) | queens))
+				| (Bitboard.bishopAttacks(king, enemies)
+				& (pos.getPieces(them, Position.BISHOP) | queens));
+		long pinned = 0;
+		while(snipers != 0){
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = Bitboard.between(king, sniper) & pos.getOccupied();
+			if(Long.bitCount(blockers) == 1)
+				pinned |= blockers & pos.getOccupancy(us);
+		}
+		return pinned;
+	}
+
+	/**
+	 * En passant takes two pawns off the board between the king and a slider at once,
+	 * for example both pawns on the rank of the king, which the pin mask does not see.
+	 * So the sliders are looked for on the occupancy the capture would leave, without
+	 * playing the move on the position.
+	 * @return True if the en passant capture does not leave the king attacked
+	 */
+	private static boolean isLegalEnPassant(Position pos, int us, int king, int from, int ep,
+			long checkMask){
+		int captured = us == Position.WHITE ? ep - 8 : ep + 8;
+		//a check is only answered by blocking on the square or taking the checking pawn
+		if((checkMask & (Bitboard.bit(ep) | Bitboard.bit(captured))) == 0)
+			return false;
+		int them = us ^ 1;
+		long occupied = (pos.getOccupied() & ~Bitboard.bit(from) & ~Bitboard.bit(captured))
+				| Bitboard.bit(ep);
+		long queens = pos.getPieces(them, Position.QUEEN);
+		return (Bitboard.rookAttacks(king, occupied)
+				& (pos.getPieces(them, Position.ROOK) | queens)) == 0
+				&& (Bitboard.bishopAttacks(king, occupied)
+				& (pos.getPieces(them, Position.BISHOP) | queens)) == 0;
+	}
+
+	/**
+	 * @return The squares the piece may move to without breaking a pin
+	 */
+	private static long pinMask(long pinned, int king, int from){
+		if((pinned & Bitboard.bit(from)) == 0)
+			return -1L;
+		return Bitboard.line(king, from);
+	}
+
+	private static int capture(long enemies, int to){
+		return (enemies & Bitboard.bit(to)) != 0 ? Move.CAPTURE : Move.QUIET;
+	}
+
+	private static int addMoves(int from, long targets, long enemies, int[] moves, int n){
+		while(targets != 0){
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			moves[n++] = Move.encode(from, to, capture(enemies, to));
+		}
+		return n;
+	}
+
+	/**
+	 * Precondition: the side to move is not in check
+	 */
+	private static int generateCastling(Position pos, int us, int king, int[] moves, int n){
+		int rights = pos.getCastling();
+		int kingside = us == Position.WHITE ?
+				Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+		int queenside = us == Position.WHITE ?
+				Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+		long occupied = pos.getOccupied();
+		int them = us ^ 1;
+
+		//the squares between king and rook must be empty and the king may not pass
+		//through or land on an attacked square
+		if((rights & kingside) != 0 && (occupied & Bitboard.between(king, king + 3)) == 0
+				&& !pos.isSquareAttacked(king + 1, them)
+				&& !pos.isSquareAttacked(king + 2, them))
+			moves[n++] = Move.encode(king, king + 2, Move.KING_CASTLE);
+		if((rights & queenside) != 0 && (occupied & Bitboard.between(king, king - 4)) == 0
+				&& !pos.isSquareAttacked(king - 1, them)
+				&& !pos.isSquareAttacked(king - 2, them))
+			moves[n++] = Move.encode(king, king - 2, Move.QUEEN_CASTLE);
+		return n;
+	}
+
+	/**
+	 * @param quiet False to leave out pushes that do not promote
+	 */
+	private static int generatePawnMoves(Position pos, int us, int king, long pinned,
+			long checkMask, boolean quiet, int[] moves, int n){
+		long empty = ~pos.getOccupied();
+		long enemies = pos.getOccupancy(us ^ 1);
+		int forward = us == Position.WHITE ? 8 : -8;
+		long startRank = us == Position.WHITE ? Bitboard.RANK_2 : Bitboard.RANK_7;
+		long lastRank = us == Position.WHITE ? Bitboard.RANK_8 : Bitboard.RANK_1;
+		int ep = pos.getEnPassant();
+
+		long pawns = pos.getPieces(us, Position.PAWN);
+		while(pawns != 0){
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+			long fromBit = Bitboard.bit(from);
+			long allowed = checkMask & pinMask(pinned, king, from);
+
+			long targets = Bitboard.pawnAttacks(from, us) & enemies;
+			long one = Bitboard.bit(from + forward) & empty;
+			targets |= one;
+			if((fromBit & startRank) != 0 && one != 0)
+				targets |= Bitboard.bit(from + 2 * forward) & empty;
+			if(!quiet)
+				targets &= enemies | lastRank;
+			targets &= allowed;
+
+			while(targets != 0){
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				long toBit = Bitboard.bit(to);
+				boolean capture = (toBit & enemies) != 0;
+				if((toBit & lastRank) != 0){
+					for(int type = Position.QUEEN; type >= Position.KNIGHT; type--){
+						moves[n++] = Move.promotion(from, to, type, capture);
+					}
+				} else if(to - from == 2 * forward){
+					moves[n++] = Move.encode(from, to, Move.DOUBLE_PUSH);
+				} else {
+					moves[n++] = Move.encode(from, to, capture ? Move.CAPTURE : Move.QUIET);
+				}
+			}
+
+			if(ep != -1 && (Bitboard.pawnAttacks(from, us) & Bitboard.bit(ep)) != 0
+					&& isLegalEnPassant(pos, us, king, from, ep, checkMask))
+				moves[n++] = Move.encode(from, ep, Move.EN_PASSANT);
+		}
+		return n;
+	}
+}
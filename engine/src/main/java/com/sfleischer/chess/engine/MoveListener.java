@@ -1,3 +1,4 @@
+package com.sfleischer.chess.engine;
 
 public interface MoveListener {
 
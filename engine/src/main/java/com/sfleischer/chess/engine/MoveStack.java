@@ -0,0 +1,48 @@
+package com.sfleischer.chess.engine;
+
+/**
+ * Preallocated move lists for a search, one per ply. Each searching thread owns one
+ * stack, so generating the moves of a node only writes into an array that already
+ * exists and nothing is allocated while the search runs.
+ * @author sfleischer
+ *
+ */
+public class MoveStack {
+
+	public static final int MAX_PLY = 128; //the deepest ply a search can reach
+
+	private int[][] moves; //the move list of each ply
+
+	public MoveStack(){
+		moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+	}
+
+	/**
+	 *
+	 * @param ply The ply of the list
+	 * @return The move list of that ply
+	 */
+	public int[] get(int ply){
+		return moves[ply];
+	}
+
+	/**
+	 * Fills the list of the ply with the legal moves of the position
+	 * @param pos The position to generate moves for
+	 * @param ply The ply of the list to fill
+	 * @return The number of moves generated
+	 */
+	public int generate(Position pos, int ply){
+		return MoveGenerator.generateLegal(pos, moves[ply], 0);
+	}
+
+	/**
+	 * Fills the list of the ply with the legal captures and promotions of the position
+	 * @param pos The position to generate moves for
+	 * @param ply The ply of the list to fill
+	 * @return The number of moves generated
+	 */
+	public int generateCaptures(Position pos, int ply){
+		return MoveGenerator.generateCaptures(pos, moves[ply], 0);
+	}
+}
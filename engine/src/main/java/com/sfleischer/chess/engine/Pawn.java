@@ -0,0 +1,79 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public class Pawn extends Piece{
+
+	public static final int WORTH = 1;
+	
+	public Pawn(Location loc, Polarity p){
+		super(loc, WORTH, p);
+	}
+
+	@Override
+	public Set<Location> getPreliminaryMoves(ChessModel model) {
+		Position pos = model.getPosition();
+		int s = Position.side(side);
+		long pawn = Bitboard.bit(getSquare());
+		long empty = ~pos.getOccupied();
+		long enemies = pos.getOccupancy(1 - s);
+		
+		//the square behind a pawn that just moved two forward can be captured
+		if(pos.getEnPassant() != -1 && pos.getSide() == s)
+			enemies |= Bitboard.bit(pos.getEnPassant());
+		
+		//pawn can move one forward if there is no piece in front of it and two
+		//forward from its starting rank
+		long one, two;
+		if(s == Position.WHITE){
+			one = Bitboard.shift(pawn, Location.NORTH) & empty;
+			two = Bitboard.shift(one & Bitboard.RANK_3, Location.NORTH) & empty;
+		} else {
+			one = Bitboard.shift(pawn, Location.SOUTH) & empty;
+			two = Bitboard.shift(one & Bitboard.RANK_6, Location.SOUTH) & empty;
+		}
+		long captures = Bitboard.pawnAttacks(getSquare(), s) & enemies;
+		return Bitboard.toLocations(one | two | captures);
+	}
+	
+	@Override
+	public int getType() {
+		return Position.PAWN;
+	}
+	
+	@Override
+	public Set<Location> getPremoveLocations() {
+		Set<Location> set = new TreeSet<Location>();
+		int direction; //the direction of the pawn moving forward
+		
+		if(side == Polarity.White){
+			direction = Location.NORTH;
+		} else {
+			direction = Location.SOUTH;
+		}
+		
+		//pawn can move one forward
+		Location next = loc.getAdjacentLocation(direction);
+		set.add(next);
+		
+		for(int i = -1; i < 2; i+=2){
+			//check for diagonal kill
+			Location diagonal = loc.getAdjacentLocation(direction + 45*i);
+			set.add(diagonal);
+		}
+
+		//pawn can move two spaces forward from its starting rank
+		if(loc.row == (side == Polarity.White ? 1 : 6)){
+			Location two = next.getAdjacentLocation(direction);
+			set.add(two);
+		}
+		return set;
+	}
+	
+	@Override
+	public Piece copy() {
+		return new Pawn(loc, side);
+	}
+	
+}
@@ -1,8 +1,5 @@
+package com.sfleischer.chess.engine;
 
-import java.awt.Graphics2D;
-import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -10,17 +7,6 @@ public abstract class Piece implements Comparable<Piece>{
 	protected Location loc; //location of the piece
 	protected int worth; //the worth of the piece (Queen is 9, Bishop is 3, etc)
 	protected Polarity side;
-	protected BufferedImage image;
-	
-	/* Note that freshMove means different things for different pieces:
-	 * For Pawn: freshMove is only true when it just moved two forward on the opening 
-	 * move. It is immediately false when the opponent makes a move. This variable is
-	 * used for en passant
-	 * For King/Rook: freshMove is only true when the King or Rook did not make a move.
-	 * As soon as it makes a move, freshMove is false. 
-	 * For other pieces: freshMove has no significance.
-	 */
-	boolean freshMove = false; 
 	
 	/**
 	 * 
@@ -33,41 +19,21 @@ public abstract class Piece implements Comparable<Piece>{
 	}
 	
 	
-	public void draw(Graphics2D g2, int x, int y, int width, int height){
-        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D map = scaled.createGraphics();
-        map.drawImage(image, 0, 0, width, width, null); 
-        map.dispose();
-		g2.drawImage(scaled, x, y, null);
-	}
-	
-	
 	/**
-	 * 
+	 * The moves come from the legal move generator, so a piece has no legal moves
+	 * while it is the other side's turn.
 	 * @return A list of legal moves that the piece can move.
 	 */
 	public Set<Location> getLegalMoves(ChessModel model){
-		//find the preliminary moves
-		Set<Location> moves = getPreliminaryMoves(model);
-		if(moves.isEmpty())
-			return moves;
-		else{
-			ChessModel temp = model.copy();
-			Set<Location> legalMoves = new TreeSet<Location>();
-			for(Location move : moves){
-				//move the piece and check if its illegal
-				if(temp.movePiece(loc, move) == -1){
-					continue;
-				}
-				if(!temp.isPlayerInCheck(side)){
-					legalMoves.add(move);
-				}
-				
-				//move the piece back
-				temp.takeback();
-			}
-			return legalMoves;
+		Set<Location> legalMoves = new TreeSet<Location>();
+		int[] moves = model.getMoveBuffer();
+		int count = model.generateLegalMoves(moves);
+		int sq = getSquare();
+		for(int i = 0; i < count; i++){
+			if(Move.from(moves[i]) == sq)
+				legalMoves.add(Bitboard.location(Move.to(moves[i])));
 		}
+		return legalMoves;
 	}
 	
 	/**
@@ -79,6 +45,14 @@ public abstract class Piece implements Comparable<Piece>{
 	public abstract Set<Location> getPreliminaryMoves(ChessModel model);
 	
 	
+	/**
+	 * 
+	 * @return The type of the piece as one of the piece constants in 
+	 * <code>Position</code>
+	 */
+	public abstract int getType();
+	
+	
 	/**
 	 * When its the opponent's turn, the player should be able to click on a piece and then
 	 * have the option of moving to anywhere on the board. Since this premove option
@@ -117,32 +91,28 @@ public abstract class Piece implements Comparable<Piece>{
 	
 	/**
 	 * 
-	 * @return The polarity of the piece (whether its white or black)
+	 * @return The bitboard square the piece stands on
 	 */
-	public Polarity getPolarity(){
-		return side;
+	public int getSquare(){
+		return Bitboard.square(loc);
 	}
 	
+	
 	/**
 	 * 
-	 * @return The width of a chess piece in pixels
+	 * @return The code of the piece in the bitboard position
 	 */
-	public static int getPieceImageWidth(){
-		//choose a random image to get the width of
-		//all images should have same width
-		BufferedImage image = Art.findImage("queen_white.png");
-		return image.getWidth();
+	public int getCode(){
+		return Position.code(Position.side(side), getType());
 	}
 	
+	
 	/**
 	 * 
-	 * @return The height of a chess piece in pixels
+	 * @return The polarity of the piece (whether its white or black)
 	 */
-	public static int getPieceImageHeight(){
-		//choose a random image to get the height of
-		//all images should have same height
-		BufferedImage image = Art.findImage("queen_white.png");
-		return image.getWidth();
+	public Polarity getPolarity(){
+		return side;
 	}
 	
 	@Override
@@ -1,3 +1,5 @@
+package com.sfleischer.chess.engine;
+
 /**
  * The board is the main interface between the user and the program. The board will
  * ask the player class to handle certain situations (clicking and such).
@@ -0,0 +1,664 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class is the bitboard representation of the pieces on the board. There is one
+ * bitboard for every kind of piece of every side (twelve in total) plus an occupancy
+ * mask for each side and one for the whole board. The mailbox array mirrors the
+ * bitboards so that the piece on a single square can be found without a scan.
+ * 
+ * Moves are played in place with <code>makeMove</code> and taken back with
+ * <code>unmakeMove</code>. Every move pushes one packed <code>int</code> undo record
+ * holding what the move destroyed: the captured piece, the castling rights, the
+ * en passant square and the halfmove clock.
+ * 
+ * The Zobrist hash of the position (see <code>Zobrist</code>) is updated by every
+ * change, so <code>getHash</code> never has to look at the board. The hash before
+ * each move is kept with the moves, which takes a move back in one step and lets
+ * repetitions be found by comparing keys.
+ * @author sfleischer
+ *
+ */
+public class Position {
+
+	//sides
+	public static final int WHITE = 0;
+	public static final int BLACK = 1;
+
+	//piece types
+	public static final int PAWN = 0;
+	public static final int KNIGHT = 1;
+	public static final int BISHOP = 2;
+	public static final int ROOK = 3;
+	public static final int QUEEN = 4;
+	public static final int KING = 5;
+
+	public static final int EMPTY = -1; //the mailbox value of an empty square
+
+	public static final String STARTING_FEN =
+			"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	//the worth of each piece type, indexed by the type constants above
+	public static final int[] WORTH = {Pawn.WORTH, Knight.WORTH, Bishop.WORTH,
+			Rook.WORTH, Queen.WORTH, King.WORTH};
+
+	//the value of each piece type in centipawns for exchanges, where the king is
+	//worth more than anything it could win
+	public static final int[] EXCHANGE_VALUE = {100, 320, 330, 500, 900, 20000};
+
+	//castling rights
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+
+	//the castling rights that survive a move touching each square
+	private static final int[] CASTLING_MASK = new int[64];
+
+	static {
+		Arrays.fill(CASTLING_MASK, 15);
+		CASTLING_MASK[0] = ~WHITE_QUEENSIDE & 15; //a1
+		CASTLING_MASK[4] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 15; //e1
+		CASTLING_MASK[7] = ~WHITE_KINGSIDE & 15; //h1
+		CASTLING_MASK[56] = ~BLACK_QUEENSIDE & 15; //a8
+		CASTLING_MASK[60] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 15; //e8
+		CASTLING_MASK[63] = ~BLACK_KINGSIDE & 15; //h8
+	}
+
+	private long[] pieces; //one bitboard per piece code (side * 6 + type)
+	private long[] occupancy; //one bitboard per side
+	private long occupied; //every piece on the board
+	private int[] mailbox; //the piece code on each square
+
+	private int side; //the side to move
+	private int castling; //the castling rights that are left
+	private int enPassant; //the square behind a pawn that just moved two or -1
+	private int halfmoveClock; //moves since the last capture or pawn move
+
+	private long hash; //the Zobrist hash of the position
+
+	private int ply; //the number of moves made
+	private int[] moves; //the moves made so far
+	private int[] undo; //the undo record of each move made
+	private long[] hashes; //the hash before each move made
+
+	private int[] swap; //the gains of the captures in the last exchange looked at
+
+	/**
+	 * Creates an empty position with white to move
+	 */
+	public Position(){
+		pieces = new long[12];
+		occupancy = new long[2];
+		mailbox = new int[64];
+		for(int sq = 0; sq < 64; sq++){
+			mailbox[sq] = EMPTY;
+		}
+		side = WHITE;
+		enPassant = -1;
+		moves = new int[256];
+		undo = new int[256];
+		hashes = new long[256];
+		swap = new int[32];
+	}
+
+	/**
+	 *
+	 * @return A deep copy of the position
+	 */
+	public Position copy(){
+		Position p = new Position();
+		p.copyFrom(this);
+		return p;
+	}
+
+	/**
+	 * Makes this position the same as the other one, reusing its own arrays when they
+	 * are big enough. A search that lives from move to move copies into its position
+	 * rather than making a new one every time.
+	 * @param other The position to copy
+	 */
+	public void copyFrom(Position other){
+		System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+		System.arraycopy(other.occupancy, 0, occupancy, 0, occupancy.length);
+		System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+		occupied = other.occupied;
+		side = other.side;
+		castling = other.castling;
+		enPassant = other.enPassant;
+		halfmoveClock = other.halfmoveClock;
+		hash = other.hash;
+		ply = other.ply;
+		if(moves.length < other.moves.length){
+			moves = new int[other.moves.length];
+			undo = new int[other.undo.length];
+			hashes = new long[other.hashes.length];
+		}
+		//only the moves made so far mean anything
+		System.arraycopy(other.moves, 0, moves, 0, other.ply);
+		System.arraycopy(other.undo, 0, undo, 0, other.ply);
+		System.arraycopy(other.hashes, 0, hashes, 0, other.ply);
+	}
+
+	/**
+	 * Reads a position in Forsyth-Edwards Notation. The move counters may be left out.
+	 * @param fen The position, for example <code>STARTING_FEN</code>
+	 * @return The position described by the string
+	 * @throws IllegalArgumentException If the string is not a valid position
+	 */
+	public static Position fromFen(String fen){
+		String[] fields = fen.trim().split("\\s+");
+		if(fields.length < 4)
+			throw new IllegalArgumentException("Incomplete FEN: " + fen);
+		Position p = new Position();
+		String letters = "PNBRQKpnbrqk";
+		int row = 7;
+		int col = 0;
+		for(char c : fields[0].toCharArray()){
+			if(c == '/'){
+				row--;
+				col = 0;
+			} else if(c >= '1' && c <= '8'){
+				col += c - '0';
+			} else {
+				int code = letters.indexOf(c);
+				if(code == -1 || row < 0 || col > 7)
+					throw new IllegalArgumentException("Bad piece placement: " + fen);
+				p.addPiece(code, Bitboard.square(row, col++));
+			}
+		}
+
+		p.side = fields[1].equals("b") ? BLACK : WHITE;
+		String rights = "KQkq";
+		for(char c : fields[2].toCharArray()){
+			if(rights.indexOf(c) != -1)
+				p.castling |= 1 << rights.indexOf(c);
+		}
+		if(!fields[3].equals("-"))
+			p.enPassant = Bitboard.square(Location.of(fields[3]));
+		if(fields.length > 4)
+			p.halfmoveClock = Integer.parseInt(fields[4]);
+		p.hash = Zobrist.hash(p);
+		return p;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- PIECE CODES -------------------------------------
+	 ********************************************************************************/
+
+	public static int code(int side, int type){
+		return side * 6 + type;
+	}
+
+	public static int sideOf(int code){
+		return code < 6 ? WHITE : BLACK;
+	}
+
+	public static int typeOf(int code){
+		return code < 6 ? code : code - 6;
+	}
+
+	public static int side(Polarity p){
+		return p == Polarity.White ? WHITE : BLACK;
+	}
+
+	public static Polarity polarity(int side){
+		return side == WHITE ? Polarity.White : Polarity.Black;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ACCESSOR METHODS --------------------------------
+	 ********************************************************************************/
+
+	/**
+	 *
+	 * @param sq The square to look at
+	 * @return The code of the piece on the square or <code>EMPTY</code>
+	 */
+	public int pieceAt(int sq){
+		return mailbox[sq];
+	}
+
+	public long getPieces(int side, int type){
+		return pieces[code(side, type)];
+	}
+
+	public long getOccupancy(int side){
+		return occupancy[side];
+	}
+
+	public long getOccupied(){
+		return occupied;
+	}
+
+	public int getSide(){
+		return side;
+	}
+
+	public int getCastling(){
+		return castling;
+	}
+
+	/**
+	 *
+	 * @return The square a pawn can capture en passant on or -1
+	 */
+	public int getEnPassant(){
+		return enPassant;
+	}
+
+	public int getHalfmoveClock(){
+		return halfmoveClock;
+	}
+
+	/**
+	 * 
+	 * @return The Zobrist hash of the position
+	 */
+	public long getHash(){
+		return hash;
+	}
+
+	/**
+	 * Only the positions since the last capture or pawn move can come back, and only
+	 * those with the same side to move, so every other stored hash is compared.
+	 * @return True if the position has been seen before in this game
+	 */
+	public boolean isRepetition(){
+		int oldest = Math.max(0, ply - halfmoveClock);
+		for(int i = ply - 2; i >= oldest; i -= 2){
+			if(hashes[i] == hash)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 *
+	 * @return The number of moves that can be taken back
+	 */
+	public int getPly(){
+		return ply;
+	}
+
+	/**
+	 *
+	 * @return The last move made or <code>Move.NONE</code>
+	 */
+	public int getLastMove(){
+		return ply == 0 ? Move.NONE : moves[ply - 1];
+	}
+
+	/**
+	 *
+	 * @param side The side to count the material of
+	 * @return The summed worth of every piece the side has left
+	 */
+	public int getMaterial(int side){
+		int points = 0;
+		for(int type = PAWN; type <= KING; type++){
+			points += WORTH[type] * Long.bitCount(getPieces(side, type));
+		}
+		return points;
+	}
+
+	/**
+	 *
+	 * @param side The side
+	 * @return True if the side has a piece other than pawns and its king
+	 */
+	public boolean hasNonPawnMaterial(int side){
+		long pawnsAndKing = pieces[code(side, PAWN)] | pieces[code(side, KING)];
+		return (occupancy[side] & ~pawnsAndKing) != 0;
+	}
+
+	/**
+	 *
+	 * @param side The side of the king
+	 * @return The square of the king or 64 if the side has no king
+	 */
+	public int kingSquare(int side){
+		return Long.numberOfTrailingZeros(pieces[code(side, KING)]);
+	}
+
+	/*********************************************************************************
+	 ------------------------------- MUTATOR METHODS ---------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Precondition: the square is empty
+	 * @param code The code of the piece to add
+	 * @param sq The square to add the piece to
+	 */
+	public void addPiece(int code, int sq){
+		long b = Bitboard.bit(sq);
+		pieces[code] |= b;
+		occupancy[sideOf(code)] |= b;
+		occupied |= b;
+		mailbox[sq] = code;
+		hash ^= Zobrist.PIECES[code][sq];
+	}
+
+	/**
+	 * Removes whatever piece stands on the square. Nothing happens if the square is
+	 * empty.
+	 * @param sq The square to clear
+	 * @return The code of the removed piece or <code>EMPTY</code>
+	 */
+	public int removePiece(int sq){
+		int code = mailbox[sq];
+		if(code == EMPTY)
+			return EMPTY;
+		long b = ~Bitboard.bit(sq);
+		pieces[code] &= b;
+		occupancy[sideOf(code)] &= b;
+		occupied &= b;
+		mailbox[sq] = EMPTY;
+		hash ^= Zobrist.PIECES[code][sq];
+		return code;
+	}
+
+	public void setSide(int side){
+		if(this.side != side)
+			hash ^= Zobrist.SIDE;
+		this.side = side;
+	}
+
+	public void setCastling(int castling){
+		hash ^= Zobrist.CASTLING[this.castling] ^ Zobrist.CASTLING[castling];
+		this.castling = castling;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- MOVEMENT METHODS --------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Fills in the flags of a move from the pieces on the board. This is used to turn a
+	 * move made by clicking on two squares into a move that <code>makeMove</code> can
+	 * play.
+	 * @param from The square the piece moves from
+	 * @param to The square the piece moves to
+	 * @param promotion The piece type a pawn promotes to if it reaches the last rank
+	 * @return The packed move
+	 */
+	public int createMove(int from, int to, int promotion){
+		int type = typeOf(mailbox[from]);
+		boolean capture = mailbox[to] != EMPTY;
+		if(type == PAWN){
+			if(Math.abs(to - from) == 16)
+				return Move.encode(from, to, Move.DOUBLE_PUSH);
+			if(to == enPassant && ((to - from) & 7) != 0)
+				return Move.encode(from, to, Move.EN_PASSANT);
+			if(to < 8 || to >= 56)
+				return Move.promotion(from, to, promotion, capture);
+		} else if(type == KING && to - from == 2){
+			return Move.encode(from, to, Move.KING_CASTLE);
+		} else if(type == KING && from - to == 2){
+			return Move.encode(from, to, Move.QUEEN_CASTLE);
+		}
+		return Move.encode(from, to, capture ? Move.CAPTURE : Move.QUIET);
+	}
+
+	/**
+	 * Plays the move in place and pushes its undo record. The move is not checked
+	 * for legality.
+	 * @param move The packed move to play
+	 */
+	public void makeMove(int move){
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flags = Move.flags(move);
+
+		//grow the history if a long game fills it
+		if(ply == moves.length){
+			moves = Arrays.copyOf(moves, ply * 2);
+			undo = Arrays.copyOf(undo, ply * 2);
+			hashes = Arrays.copyOf(hashes, ply * 2);
+		}
+		hashes[ply] = hash;
+
+		int captured = EMPTY;
+		if(flags == Move.EN_PASSANT)
+			captured = removePiece(side == WHITE ? to - 8 : to + 8);
+		else if((flags & Move.CAPTURE) != 0)
+			captured = removePiece(to);
+
+		int piece = removePiece(from);
+		if((flags & Move.PROMOTION) != 0)
+			addPiece(code(side, Move.promotionType(move)), to);
+		else
+			addPiece(piece, to);
+
+		if(flags == Move.KING_CASTLE)
+			addPiece(removePiece(to + 1), to - 1);
+		else if(flags == Move.QUEEN_CASTLE)
+			addPiece(removePiece(to - 2), to + 1);
+
+		moves[ply] = move;
+		undo[ply] = (captured + 1) | (castling << 4) | ((enPassant + 1) << 8)
+				| (halfmoveClock << 15);
+		ply++;
+
+		hash ^= Zobrist.CASTLING[castling];
+		castling &= CASTLING_MASK[from] & CASTLING_MASK[to];
+		hash ^= Zobrist.CASTLING[castling];
+		if(enPassant != -1)
+			hash ^= Zobrist.EN_PASSANT[enPassant & 7];
+		enPassant = (flags == Move.DOUBLE_PUSH) ? (from + to) >>> 1 : -1;
+		if(enPassant != -1)
+			hash ^= Zobrist.EN_PASSANT[enPassant & 7];
+		if(typeOf(piece) == PAWN || captured != EMPTY)
+			halfmoveClock = 0;
+		else
+			halfmoveClock++;
+		side ^= 1;
+		hash ^= Zobrist.SIDE;
+	}
+
+	/**
+	 * Takes back the last move made with <code>makeMove</code>
+	 */
+	public void unmakeMove(){
+		ply--;
+		int move = moves[ply];
+		int record = undo[ply];
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flags = Move.flags(move);
+		side ^= 1;
+
+		int piece = removePiece(to);
+		if((flags & Move.PROMOTION) != 0)
+			piece = code(side, PAWN);
+		addPiece(piece, from);
+
+		if(flags == Move.KING_CASTLE)
+			addPiece(removePiece(to - 1), to + 1);
+		else if(flags == Move.QUEEN_CASTLE)
+			addPiece(removePiece(to + 1), to - 2);
+
+		int captured = (record & 15) - 1;
+		if(flags == Move.EN_PASSANT)
+			addPiece(captured, side == WHITE ? to - 8 : to + 8);
+		else if(captured != EMPTY)
+			addPiece(captured, to);
+
+		castling = (record >>> 4) & 15;
+		enPassant = ((record >>> 8) & 127) - 1;
+		halfmoveClock = record >>> 15;
+		hash = hashes[ply]; //the pieces toggled their keys but the rest is simply restored
+	}
+
+	/**
+	 * Passes the turn without moving, for a search that wants to know whether the
+	 * position is so good that even a free move for the other side would not help it.
+	 * The null move is recorded as <code>Move.NONE</code> and ends the positions that
+	 * count as a repetition, just like a capture.
+	 * Precondition: the side to move is not in check
+	 */
+	public void makeNullMove(){
+		if(ply == moves.length){
+			moves = Arrays.copyOf(moves, ply * 2);
+			undo = Arrays.copyOf(undo, ply * 2);
+			hashes = Arrays.copyOf(hashes, ply * 2);
+		}
+		hashes[ply] = hash;
+		moves[ply] = Move.NONE;
+		undo[ply] = (castling << 4) | ((enPassant + 1) << 8) | (halfmoveClock << 15);
+		ply++;
+
+		if(enPassant != -1)
+			hash ^= Zobrist.EN_PASSANT[enPassant & 7];
+		enPassant = -1;
+		halfmoveClock = 0;
+		side ^= 1;
+		hash ^= Zobrist.SIDE;
+	}
+
+	/**
+	 * Takes back the last move made with <code>makeNullMove</code>
+	 */
+	public void unmakeNullMove(){
+		ply--;
+		int record = undo[ply];
+		side ^= 1;
+		enPassant = ((record >>> 8) & 127) - 1;
+		halfmoveClock = record >>> 15;
+		hash = hashes[ply];
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ATTACK METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 *
+	 * @param sq The square to test
+	 * @param side The side doing the attacking
+	 * @return True if any piece of the side attacks the square
+	 */
+	public boolean isSquareAttacked(int sq, int side){
+		//a pawn of the side attacks sq exactly when a pawn of the other side on sq
+		//would attack the pawn
+		if((Bitboard.pawnAttacks(sq, 1 - side) & getPieces(side, PAWN)) != 0)
+			return true;
+		if((Bitboard.knightAttacks(sq) & getPieces(side, KNIGHT)) != 0)
+			return true;
+		if((Bitboard.kingAttacks(sq) & getPieces(side, KING)) != 0)
+			return true;
+		long queens = getPieces(side, QUEEN);
+		if((Bitboard.bishopAttacks(sq, occupied) & (getPieces(side, BISHOP) | queens)) != 0)
+			return true;
+		return (Bitboard.rookAttacks(sq, occupied) & (getPieces(side, ROOK) | queens)) != 0;
+	}
+
+	/**
+	 *
+	 * @param sq The square to test
+	 * @param side The side doing the attacking
+	 * @param occupied The occupancy to slide through (lets callers take pieces off
+	 * the board, for example the king that is stepping away from a slider)
+	 * @return Every piece of the side that attacks the square
+	 */
+	public long attackersTo(int sq, int side, long occupied){
+		long queens = getPieces(side, QUEEN);
+		return (Bitboard.pawnAttacks(sq, 1 - side) & getPieces(side, PAWN))
+				| (Bitboard.knightAttacks(sq) & getPieces(side, KNIGHT))
+				| (Bitboard.kingAttacks(sq) & getPieces(side, KING))
+				| (Bitboard.bishopAttacks(sq, occupied) & (getPieces(side, BISHOP) | queens))
+				| (Bitboard.rookAttacks(sq, occupied) & (getPieces(side, ROOK) | queens));
+	}
+
+	/**
+	 * Static exchange evaluation: plays out every capture on the target square of the
+	 * move, each side always taking with its least valuable piece and free to stop
+	 * when going on would lose more. Sliders behind the pieces that capture join in
+	 * as the way opens (x-rays). Pins are not taken into account.
+	 * @param move A capture or promotion of the side to move
+	 * @return What the side to move wins in centipawns, which is below 0 for a
+	 * losing capture
+	 */
+	public int see(int move){
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int attacker = typeOf(mailbox[from]);
+		long occ = occupied ^ Bitboard.bit(from);
+		int d = 0;
+		if(Move.flags(move) == Move.EN_PASSANT){
+			swap[0] = EXCHANGE_VALUE[PAWN];
+			occ ^= Bitboard.bit(to + (side == WHITE ? -8 : 8));
+		} else {
+			swap[0] = mailbox[to] == EMPTY ? 0 : EXCHANGE_VALUE[typeOf(mailbox[to])];
+		}
+		if(Move.isPromotion(move)){
+			attacker = Move.promotionType(move);
+			swap[0] += EXCHANGE_VALUE[attacker] - EXCHANGE_VALUE[PAWN];
+		}
+
+		long diagonal = pieces[BISHOP] | pieces[BISHOP + 6] | pieces[QUEEN] | pieces[QUEEN + 6];
+		long straight = pieces[ROOK] | pieces[ROOK + 6] | pieces[QUEEN] | pieces[QUEEN + 6];
+		long attackers = (attackersTo(to, WHITE, occ) | attackersTo(to, BLACK, occ)) & occ;
+		int stm = side ^ 1;
+		while(true){
+			d++;
+			//what the side wins if the piece that just took is taken back
+			swap[d] = EXCHANGE_VALUE[attacker] - swap[d - 1];
+			//neither side can gain by going on
+			if(Math.max(-swap[d - 1], swap[d]) < 0)
+				break;
+			long mine = attackers & occupancy[stm];
+			if(mine == 0)
+				break;
+			int type = PAWN;
+			while((mine & pieces[code(stm, type)]) == 0){
+				type++;
+			}
+			long bit = Long.lowestOneBit(mine & pieces[code(stm, type)]);
+			occ ^= bit;
+			if(type == PAWN || type == BISHOP || type == QUEEN)
+				attackers |= Bitboard.bishopAttacks(to, occ) & diagonal;
+			if(type == ROOK || type == QUEEN)
+				attackers |= Bitboard.rookAttacks(to, occ) & straight;
+			attackers &= occ;
+			attacker = type;
+			stm ^= 1;
+		}
+		//the last capture was never made, and every side stops when it is better off
+		while(--d > 0){
+			swap[d - 1] = -Math.max(-swap[d - 1], swap[d]);
+		}
+		return swap[0];
+	}
+
+	/**
+	 *
+	 * @return True if the side to move is in check
+	 */
+	public boolean isInCheck(){
+		return isSquareAttacked(kingSquare(side), side ^ 1);
+	}
+
+	/**
+	 * Used right after <code>makeMove</code> to throw out pseudo-legal moves
+	 * @return True if the side that just moved left its own king attacked
+	 */
+	public boolean isOpponentInCheck(){
+		return isSquareAttacked(kingSquare(side ^ 1), side);
+	}
+
+	@Override
+	public String toString(){
+		String letters = "PNBRQKpnbrqk";
+		String state = "";
+		for(int row = 7; row >= 0; row--){
+			for(int col = 0; col < 8; col++){
+				int code = mailbox[Bitboard.square(row, col)];
+				state = state + (code == EMPTY ? '.' : letters.charAt(code));
+			}
+			state = state + "\n";
+		}
+		return state;
+	}
+}
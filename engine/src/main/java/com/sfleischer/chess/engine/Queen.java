@@ -1,5 +1,5 @@
-import java.util.LinkedList;
-import java.util.List;
+package com.sfleischer.chess.engine;
+
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -9,40 +9,19 @@ public class Queen extends Piece{
 	
 	public Queen(Location loc, Polarity p){
 		super(loc, WORTH, p);
-		
-		String path = "";
-		
-		switch(p){
-		case White: 
-			path = "queen_white.png";
-			break;
-		case Black:
-			path = "queen_black.png";
-			break;
-		}
-		
-		image = Art.findImage(path);
 	}
 
 	@Override
 	public Set<Location> getPreliminaryMoves(ChessModel model) {
-		Set<Location> set = new TreeSet<Location>();
-		int direction = 0;
-		for(int i = 0; i < 8; i++){
-			direction = Location.NORTHEAST + i * 45;
-			Location next = loc.getAdjacentLocation(direction);
-			Piece p = model.getPiece(next);
-			while(p == null && !Location.isLocationOutOfBounds(next)){
-				set.add(next);
-				next = next.getAdjacentLocation(direction);
-				p = model.getPiece(next);
-			}
-			if(p == null)
-				continue;
-			else if(p.getPolarity() != side)
-				set.add(next);
-		}
-		return set;
+		Position pos = model.getPosition();
+		long own = pos.getOccupancy(Position.side(side));
+		long targets = Bitboard.queenAttacks(getSquare(), pos.getOccupied()) & ~own;
+		return Bitboard.toLocations(targets);
+	}
+	
+	@Override
+	public int getType() {
+		return Position.QUEEN;
 	}
 	
 	@Override
@@ -0,0 +1,46 @@
+package com.sfleischer.chess.engine;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public class Rook extends Piece{
+
+	public static final int WORTH = 5;
+	
+	public Rook(Location loc, Polarity p){
+		super(loc, WORTH, p);
+	}
+
+	@Override
+	public Set<Location> getPreliminaryMoves(ChessModel model) {
+		Position pos = model.getPosition();
+		long own = pos.getOccupancy(Position.side(side));
+		long targets = Bitboard.rookAttacks(getSquare(), pos.getOccupied()) & ~own;
+		return Bitboard.toLocations(targets);
+	}
+	
+	@Override
+	public int getType() {
+		return Position.ROOK;
+	}
+	
+	@Override
+	public Set<Location> getPremoveLocations() {
+		Set<Location> set = new TreeSet<Location>();
+		int direction = 0;
+		for(int i = 0; i < 4; i++){
+			direction = i * 90;
+			Location next = loc.getAdjacentLocation(direction);
+			while(!Location.isLocationOutOfBounds(next)){
+				set.add(next);
+				next = next.getAdjacentLocation(direction);
+			}
+		}
+		return set;
+	}
+	
+	@Override
+	public Piece copy() {
+		return new Rook(loc, side);
+	}
+}
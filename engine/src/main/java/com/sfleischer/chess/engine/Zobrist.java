@@ -0,0 +1,72 @@
+package com.sfleischer.chess.engine;
+
+/**
+ * The random keys of Zobrist hashing. The hash of a position is the XOR of one key for
+ * every piece on its square, one for the side to move, one for the castling rights and
+ * one for the file of the en passant square. XOR undoes itself, so a move only has to
+ * toggle the keys of what it changed and the hash never has to be rebuilt.
+ * The keys come from a fixed seed so a hash means the same thing in every run.
+ * @author sfleischer
+ *
+ */
+public final class Zobrist {
+
+	static final long[][] PIECES = new long[12][64]; //indexed by piece code and square
+	static final long[] CASTLING = new long[16]; //indexed by the castling rights
+	static final long[] EN_PASSANT = new long[8]; //indexed by the file of the square
+	static final long SIDE; //toggled whenever black is to move
+
+	static {
+		long seed = 0x5A0B1C2D3E4F6071L;
+		for(int code = 0; code < 12; code++){
+			for(int sq = 0; sq < 64; sq++){
+				seed = next(seed);
+				PIECES[code][sq] = mix(seed);
+			}
+		}
+		for(int i = 0; i < CASTLING.length; i++){
+			seed = next(seed);
+			CASTLING[i] = mix(seed);
+		}
+		CASTLING[0] = 0; //no rights leaves the hash alone
+		for(int i = 0; i < EN_PASSANT.length; i++){
+			seed = next(seed);
+			EN_PASSANT[i] = mix(seed);
+		}
+		SIDE = mix(next(seed));
+	}
+
+	private Zobrist(){}
+
+	/**
+	 * Builds the hash of a position from scratch. The position keeps its hash up to date
+	 * by itself, this is only needed when a position is set up.
+	 * @param pos The position
+	 * @return The hash of the position
+	 */
+	public static long hash(Position pos){
+		long hash = 0;
+		for(int sq = 0; sq < 64; sq++){
+			int code = pos.pieceAt(sq);
+			if(code != Position.EMPTY)
+				hash ^= PIECES[code][sq];
+		}
+		if(pos.getSide() == Position.BLACK)
+			hash ^= SIDE;
+		hash ^= CASTLING[pos.getCastling()];
+		if(pos.getEnPassant() != -1)
+			hash ^= EN_PASSANT[pos.getEnPassant() & 7];
+		return hash;
+	}
+
+	//the steps of the splitmix64 generator
+	private static long next(long seed){
+		return seed + 0x9E3779B97F4A7C15L;
+	}
+
+	private static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,230 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.concurrent.Executor;
+
+import com.sfleischer.chess.engine.Bitboard;
+import com.sfleischer.chess.engine.ChessModel;
+import com.sfleischer.chess.engine.Move;
+import com.sfleischer.chess.engine.MoveGenerator;
+import com.sfleischer.chess.engine.Player;
+import com.sfleischer.chess.engine.Polarity;
+import com.sfleischer.chess.engine.Position;
+
+public class AI extends Player{
+
+	private final Engine engine; //the table and threads, kept from move to move
+	private final Executor mover; //plays the moves on the thread that owns the model
+	private final boolean ponder; //search on the opponent's time
+	private final SearchListener listener; //plays the move once a search is over
+	private SearchHandle search; //the search of the computer or null
+	private long ponderKey; //the position being pondered, 0 for the search of a move
+	private boolean ponderDone; //the ponder search ended before the reply came
+	private int generation; //the calls to stop so far; older searches play no move
+
+	/**
+	 * The engine is set up as described in Engine.fromProperties, and
+	 * <code>-Dchess.ponder=false</code> keeps the computer from thinking on the
+	 * opponent's time.
+	 * @param p The side of the computer
+	 */
+	public AI(Polarity p) {
+		this(p, Engine.fromProperties());
+	}
+
+	/**
+	 * The moves are played on the thread of the search, which is only safe when
+	 * nothing else looks at the model while the computer thinks, as in the console
+	 * @param p The side of the computer
+	 * @param engine The engine to search with
+	 */
+	public AI(Polarity p, Engine engine) {
+		this(p, engine, new Executor(){
+			@Override
+			public void execute(Runnable task) {
+				task.run();
+			}
+		});
+	}
+
+	/**
+	 *
+	 * @param p The side of the computer
+	 * @param engine The engine to search with
+	 * @param mover Plays the moves the computer found on the thread that owns the
+	 * model, for example the event dispatch thread of a window. stop() has to be
+	 * called on that thread too.
+	 */
+	public AI(Polarity p, Engine engine, Executor mover) {
+		super(p);
+		this.engine = engine;
+		this.mover = mover;
+		ponder = !"false".equalsIgnoreCase(System.getProperty("chess.ponder"));
+		listener = new SearchListener(){
+			@Override
+			public void searchDone(SearchHandle s) {
+				finished(s);
+			}
+		};
+		canMove = false;
+	}
+
+	/**
+	 *
+	 * @return The engine of the computer
+	 */
+	public Engine getEngine(){
+		return engine;
+	}
+
+	/**
+	 * LAUNCH THE THREADS!!!
+	 * The engine searches on threads of its own so the caller is free right away. If
+	 * the opponent played the move that was being pondered, that search simply goes
+	 * on with the time of this move; any other move stops it first.
+	 */
+	@Override
+	public void move() {
+		//stalemated, so the reply that was pondered can never come
+		if(model.generateLegalMoves(model.getMoveBuffer()) == 0){
+			stop();
+			return;
+		}
+		Position pos = model.getPosition();
+		SearchLimits limits = SearchLimits.forClock(model.getClock(), side);
+		final SearchHandle ready;
+		final int current;
+		synchronized(this){
+			if(search == null || ponderKey != pos.getHash()){
+				ponderKey = 0;
+				ponderDone = false;
+				search = engine.start(pos, limits, listener);
+				return;
+			}
+			ponderKey = 0;
+			if(!ponderDone){
+				search.ponderHit(limits);
+				return;
+			}
+			//the ponder search already found its move, for example a mate
+			ready = search;
+			search = null;
+			ponderDone = false;
+			current = generation;
+		}
+		//not on this thread, which is still inside movePiece
+		engine.execute(new Runnable(){
+			@Override
+			public void run() {
+				playLater(ready, current);
+			}
+		});
+	}
+
+	/**
+	 * Stops thinking, for when the game is over or thrown away. The search lets go of
+	 * its threads within about a millisecond and the computer plays no move from it,
+	 * not even one that it already found and is about to play. Called on the thread
+	 * the moves are played on.
+	 */
+	public void stop(){
+		SearchHandle s;
+		synchronized(this){
+			s = search;
+			search = null;
+			ponderKey = 0;
+			ponderDone = false;
+			generation++;
+		}
+		if(s != null)
+			s.stop();
+	}
+
+	/*********************************************************************************
+	 ------------------------------- SEARCH METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Called on the search thread when a search is over. A search that was stopped or
+	 * replaced plays nothing, and a ponder search waits for the opponent's move.
+	 */
+	private void finished(SearchHandle s){
+		int current;
+		synchronized(this){
+			if(s != search)
+				return;
+			if(ponderKey != 0){
+				ponderDone = true;
+				return;
+			}
+			search = null;
+			current = generation;
+		}
+		playLater(s, current);
+	}
+
+	/**
+	 * Hands the move of the search to the thread that owns the model
+	 */
+	private void playLater(final SearchHandle s, final int generation){
+		mover.execute(new Runnable(){
+			@Override
+			public void run() {
+				play(s, generation);
+			}
+		});
+	}
+
+	/**
+	 * Plays the move the search found and starts pondering on the reply the principal
+	 * variation expects. Runs on the thread that owns the model. The ponder search is in place before the move is played,
+	 * since the opponent may answer before movePiece even returns.
+	 * @param s The search that is over
+	 * @param generation The generation the move was found in. If stop was called
+	 * since, the move belongs to a game that is over and is not played.
+	 */
+	private void play(SearchHandle s, int generation){
+		synchronized(this){
+			if(generation != this.generation)
+				return;
+		}
+		SearchResult best = s.getBest();
+		int move = best.getMove();
+		int[] pv = best.getPrincipalVariation();
+		if(ponder && pv.length >= 2)
+			startPonder(model.getPosition(), move, pv[1]);
+		model.movePiece(Bitboard.location(Move.from(move)),
+				Bitboard.location(Move.to(move)));
+	}
+
+	/**
+	 * Starts searching the position after the move and the expected reply, unless
+	 * the reply is not legal or the game is over after it
+	 */
+	private void startPonder(Position pos, int move, int expected){
+		Position next = pos.copy();
+		next.makeMove(move);
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateLegal(next, buffer, 0);
+		boolean legal = false;
+		for(int i = 0; i < count; i++){
+			if(buffer[i] == expected)
+				legal = true;
+		}
+		if(!legal)
+			return;
+		next.makeMove(expected);
+		if(!MoveGenerator.hasLegalMove(next, buffer))
+			return;
+		synchronized(this){
+			ponderKey = next.getHash();
+			ponderDone = false;
+			search = engine.start(next, SearchLimits.infinite(), listener);
+		}
+	}
+
+	@Override
+	public void promote() {
+		model.promotePawn(ChessModel.QUEEN);
+	}
+
+}
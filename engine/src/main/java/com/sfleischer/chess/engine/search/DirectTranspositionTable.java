@@ -0,0 +1,64 @@
+package com.sfleischer.chess.engine.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A transposition table kept in direct buffers outside of the Java heap, so a table of
+ * several GB adds nothing for the garbage collector to scan or copy. A single buffer
+ * holds at most 2 GB, so the table is split into chunks of 1 GB. Every chunk starts on
+ * a 64 byte boundary, which puts every bucket in exactly one cache line.
+ * 
+ * The memory is given back when the table is garbage collected.
+ * @author sfleischer
+ *
+ */
+public class DirectTranspositionTable extends TranspositionTable {
+
+	private static final int CHUNK_SHIFT = 27; //a chunk holds 2^27 longs (1 GB)
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+	private static final long MAX_BUCKETS = 1L << 34; //1 TB
+
+	private final ByteBuffer[] chunks;
+
+	/**
+	 * @param megabytes The size of the table
+	 */
+	public DirectTranspositionTable(int megabytes){
+		this(buckets(megabytes, MAX_BUCKETS));
+	}
+
+	private DirectTranspositionTable(long buckets){
+		super(buckets);
+		long longs = buckets * BUCKET_ENTRIES * 2;
+		int count = (int) ((longs + CHUNK_MASK) >>> CHUNK_SHIFT);
+		chunks = new ByteBuffer[count];
+		for(int i = 0; i < count; i++){
+			long size = Math.min(longs - ((long) i << CHUNK_SHIFT), 1L << CHUNK_SHIFT);
+			//over-allocate by one cache line and slice off an aligned view
+			ByteBuffer raw = ByteBuffer.allocateDirect((int) size * 8 + BUCKET_BYTES);
+			chunks[i] = raw.alignedSlice(BUCKET_BYTES).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	@Override
+	protected long read(long index){
+		ByteBuffer chunk = chunks[(int) (index >>> CHUNK_SHIFT)];
+		return chunk.getLong((int) (index & CHUNK_MASK) << 3);
+	}
+
+	@Override
+	protected void write(long index, long value){
+		ByteBuffer chunk = chunks[(int) (index >>> CHUNK_SHIFT)];
+		chunk.putLong((int) (index & CHUNK_MASK) << 3, value);
+	}
+
+	@Override
+	protected void erase(){
+		for(ByteBuffer chunk : chunks){
+			for(int i = 0; i < chunk.capacity(); i += 8){
+				chunk.putLong(i, 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sfleischer.chess.engine.MoveGenerator;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * The searching part of the computer, apart from any game: a transposition table and
+ * the threads of a parallel search, kept from move to move. A search is started with
+ * start and runs on threads of its own; the caller gets a SearchHandle to stop it or
+ * to read the best move found so far. Only one search runs at a time, so starting
+ * one stops the last.
+ *
+ * Every thread of the engine is made when it is created and kept for every search
+ * after, together with the stacks, killers and history of each thread. An engine is
+ * meant to live as long as the program, or at least for several games.
+ * @author sfleischer
+ *
+ */
+public class Engine {
+
+	public static final int DEFAULT_HASH_MB = 16; //the size of the transposition table
+	public static final int MAX_DEPTH = 64; //the deepest iteration of a search
+
+	private final TranspositionTable table; //kept from search to search
+	private final ParallelSearch parallel; //the threads that search
+	private final ExecutorService runner; //the thread each search starts on
+	private final int[] buffer; //for the legal moves of the position to search
+	private SearchHandle running; //the last search that was started or null
+
+	/**
+	 *
+	 * @param table The transposition table to search with
+	 * @param parallel The parallel search, which must use the same table
+	 */
+	public Engine(TranspositionTable table, ParallelSearch parallel){
+		this.table = table;
+		this.parallel = parallel;
+		runner = Executors.newSingleThreadExecutor(new SearchThreadFactory("search"));
+		buffer = new int[MoveGenerator.MAX_MOVES];
+	}
+
+	/**
+	 * The table and threads are picked when the program starts:
+	 * <code>-Dchess.hash=MB</code> sets the size of the table,
+	 * <code>-Dchess.hash.offheap=true</code> keeps it off the heap,
+	 * <code>-Dchess.threads=N</code> sets the number of search threads, which is the
+	 * number of cores (Runtime.availableProcessors) by default, and
+	 * <code>-Dchess.parallel=lazy|ybwc</code> picks how the threads share the work
+	 * (Lazy SMP by default). The pruning can be turned off as described in
+	 * SearchOptions.
+	 * @return An engine set up by the system properties
+	 */
+	public static Engine fromProperties(){
+		TranspositionTable table = TranspositionTable.create(
+				Integer.getInteger("chess.hash", DEFAULT_HASH_MB),
+				Boolean.getBoolean("chess.hash.offheap"));
+		ParallelSearch parallel = ParallelSearch.create(
+				System.getProperty("chess.parallel", "lazy"), table,
+				Integer.getInteger("chess.threads", Runtime.getRuntime().availableProcessors()),
+				SearchOptions.fromProperties());
+		return new Engine(table, parallel);
+	}
+
+	/**
+	 *
+	 * @param pos The position to search, which is copied and not changed
+	 * @param limits When the search stops
+	 * @return The running search
+	 */
+	public SearchHandle start(Position pos, SearchLimits limits){
+		return start(pos, limits, null);
+	}
+
+	/**
+	 * Stops the last search and waits for its threads, then starts searching the
+	 * position on the threads of the engine
+	 * @param pos The position to search, which is copied and not changed
+	 * @param limits When the search stops
+	 * @param listener Told when the search is over or null
+	 * @return The running search
+	 * @throws IllegalArgumentException If the position has no legal move
+	 */
+	public synchronized SearchHandle start(Position pos, SearchLimits limits,
+			final SearchListener listener){
+		final Position root = pos.copy();
+		int count = MoveGenerator.generateLegal(root, buffer, 0);
+		if(count == 0)
+			throw new IllegalArgumentException("No legal moves to search");
+		final int[] moves = Arrays.copyOf(buffer, count);
+		final int depth = limits.getDepth();
+
+		stop();
+		if(running != null)
+			running.awaitDone();
+		final SearchHandle handle = new SearchHandle(limits);
+		running = handle;
+
+		runner.execute(new Runnable(){
+			@Override
+			public void run() {
+				SearchResult result = null;
+				try{
+					result = parallel.search(root, moves, moves.length, depth,
+							handle.getTimer(), handle);
+				} finally {
+					//the next search must never wait forever
+					handle.finish(result);
+				}
+				if(listener != null)
+					listener.searchDone(handle);
+			}
+		});
+		return handle;
+	}
+
+	/**
+	 * Runs a task on the thread the searches start on, after the search that is
+	 * running, for work that belongs to a search but must not run on the caller's
+	 * thread, like playing a move that was found while pondering
+	 * @param task The task
+	 */
+	public void execute(Runnable task){
+		runner.execute(task);
+	}
+
+	/**
+	 * Stops the running search, if there is one, without waiting for it
+	 */
+	public synchronized void stop(){
+		if(running != null)
+			running.stop();
+	}
+
+	/**
+	 * Stops the running search and lets every thread of the engine go. No search may
+	 * be started after.
+	 */
+	public synchronized void shutdown(){
+		stop();
+		runner.shutdown();
+		parallel.shutdown();
+	}
+
+	/**
+	 *
+	 * @return The transposition table of the engine
+	 */
+	public TranspositionTable getTable(){
+		return table;
+	}
+
+	/**
+	 *
+	 * @return The number of threads a search uses
+	 */
+	public int getThreads(){
+		return parallel.getThreads();
+	}
+}
@@ -0,0 +1,82 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.Bitboard;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * The static evaluation of a position in centipawns. It counts material and gives a
+ * small bonus for pieces on good squares: knights and bishops in the center, pawns that
+ * have advanced and a king that stays home while the queens are on the board (and
+ * walks to the center once they are gone).
+ * @author sfleischer
+ *
+ */
+public final class Evaluation {
+
+	//the value of each piece type in centipawns, indexed by the type constants
+	public static final int[] VALUE = {100, 320, 330, 500, 900, 0};
+
+	//how far each square is from the edge of the board (0 on the rim, 3 in the center)
+	private static final int[] CENTER = new int[64];
+
+	static {
+		for(int sq = 0; sq < 64; sq++){
+			int row = sq >>> 3;
+			int col = sq & 7;
+			CENTER[sq] = Math.min(Math.min(row, 7 - row), Math.min(col, 7 - col));
+		}
+	}
+
+	private Evaluation(){}
+
+	/**
+	 *
+	 * @param pos The position
+	 * @return The score of the position for the side to move
+	 */
+	public static int evaluate(Position pos){
+		boolean endgame = pos.getPieces(Position.WHITE, Position.QUEEN) == 0
+				&& pos.getPieces(Position.BLACK, Position.QUEEN) == 0;
+		int score = evaluate(pos, Position.WHITE, endgame)
+				- evaluate(pos, Position.BLACK, endgame);
+		return pos.getSide() == Position.WHITE ? score : -score;
+	}
+
+	/**
+	 *
+	 * @return The score of one side's pieces
+	 */
+	private static int evaluate(Position pos, int side, boolean endgame){
+		int score = 0;
+		for(int type = Position.PAWN; type <= Position.QUEEN; type++){
+			score += VALUE[type] * Long.bitCount(pos.getPieces(side, type));
+		}
+
+		long pawns = pos.getPieces(side, Position.PAWN);
+		while(pawns != 0){
+			int sq = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+			int rank = side == Position.WHITE ? sq >>> 3 : 7 - (sq >>> 3);
+			//the fourth row tells how central the file of the pawn is
+			score += 5 * (rank - 1) + 5 * CENTER[24 | (sq & 7)];
+		}
+		long minors = pos.getPieces(side, Position.KNIGHT);
+		while(minors != 0){
+			score += 10 * CENTER[Long.numberOfTrailingZeros(minors)];
+			minors &= minors - 1;
+		}
+		minors = pos.getPieces(side, Position.BISHOP);
+		while(minors != 0){
+			score += 5 * CENTER[Long.numberOfTrailingZeros(minors)];
+			minors &= minors - 1;
+		}
+
+		int king = pos.kingSquare(side);
+		long home = side == Position.WHITE ? Bitboard.RANK_1 : Bitboard.RANK_8;
+		if(endgame)
+			score += 10 * CENTER[king];
+		else if((Bitboard.bit(king) & home) != 0)
+			score += 20;
+		return score;
+	}
+}
@@ -0,0 +1,43 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.Arrays;
+
+/**
+ * A transposition table kept in a <code>long</code> array on the Java heap. A Java
+ * array holds at most 2^31 - 1 elements, so this table is capped at 8 GB.
+ * @author sfleischer
+ *
+ */
+public class HeapTranspositionTable extends TranspositionTable {
+
+	private static final long MAX_BUCKETS = 1L << 27;
+
+	private final long[] table; //two longs per entry: key ^ data and data
+
+	/**
+	 * @param megabytes The size of the table
+	 */
+	public HeapTranspositionTable(int megabytes){
+		this(buckets(megabytes, MAX_BUCKETS));
+	}
+
+	private HeapTranspositionTable(long buckets){
+		super(buckets);
+		table = new long[(int) buckets * BUCKET_ENTRIES * 2];
+	}
+
+	@Override
+	protected long read(long index){
+		return table[(int) index];
+	}
+
+	@Override
+	protected void write(long index, long value){
+		table[(int) index] = value;
+	}
+
+	@Override
+	protected void erase(){
+		Arrays.fill(table, 0);
+	}
+}
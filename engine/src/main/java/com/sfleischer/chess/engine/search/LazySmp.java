@@ -0,0 +1,115 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * Lazy SMP: every thread runs the same search from the same position and the only
+ * thing they share is the transposition table. A helper that has already searched a
+ * position saves the others the work, so the main worker reaches each depth sooner
+ * the more threads there are, without any of the bookkeeping of splitting the tree.
+ *
+ * The workers and the threads of the helpers are made once and kept for every
+ * search, so a move starts with warm killers and history and no new threads.
+ * @author sfleischer
+ *
+ */
+public class LazySmp implements ParallelSearch{
+
+	private final TranspositionTable table; //shared by every worker
+	private final Worker[] workers; //the main worker first, then the helpers
+	private final ExecutorService helpers; //one thread per helper or null
+	private final Future<?>[] running; //the helpers of the running search
+
+	/**
+	 *
+	 * @param table The transposition table
+	 * @param threads The number of threads to search with, at least 1
+	 * @param options Which of the selective parts of the search to use
+	 */
+	public LazySmp(TranspositionTable table, int threads, SearchOptions options){
+		this.table = table;
+		workers = new Worker[Math.max(threads, 1)];
+		for(int i = 0; i < workers.length; i++){
+			workers[i] = new Worker(i, table, options);
+		}
+		helpers = workers.length == 1 ? null : Executors.newFixedThreadPool(
+				workers.length - 1, new SearchThreadFactory("lazy-smp"));
+		running = new Future<?>[workers.length];
+	}
+
+	@Override
+	public int getThreads(){
+		return workers.length;
+	}
+
+	@Override
+	public void shutdown(){
+		if(helpers != null)
+			helpers.shutdownNow();
+	}
+
+	/**
+	 * Searches the position on the calling thread (the main worker) and on
+	 * <code>threads - 1</code> helper threads. The helpers are stopped as soon as the
+	 * main worker is done.
+	 * Precondition: there is at least one legal move, and no other search is running
+	 * @param pos The position, which is copied into every worker and not changed
+	 * @param moves The legal moves of the position
+	 * @param count The number of moves
+	 * @param maxDepth The deepest iteration to start
+	 * @param timer The time limits or null to search until maxDepth is done
+	 * @param handle The search to tell about every iteration the main worker finishes
+	 * or null
+	 * @return The result of the deepest finished iteration of any worker, with the
+	 * nodes and researches of all workers
+	 */
+	@Override
+	public SearchResult search(Position pos, int[] moves, int count, int maxDepth,
+			TimeManager timer, SearchHandle handle){
+		table.newSearch();
+		for(int i = 0; i < workers.length; i++){
+			workers[i].prepare(pos, moves, count, maxDepth, timer, i == 0 ? handle : null);
+		}
+		for(int i = 1; i < workers.length; i++){
+			running[i] = helpers.submit(workers[i]);
+		}
+
+		workers[0].run();
+
+		for(int i = 1; i < workers.length; i++){
+			workers[i].stop();
+		}
+		for(int i = 1; i < workers.length; i++){
+			try{
+				running[i].get();
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+			} catch(ExecutionException e){
+				throw new IllegalStateException("A helper of the search failed", e.getCause());
+			}
+			running[i] = null;
+		}
+
+		//a helper may have finished a deeper iteration than the main worker
+		SearchResult best = workers[0].getResult();
+		long nodes = 0;
+		long researches = 0;
+		for(Worker w : workers){
+			nodes += w.getNodes();
+			researches += w.getResearches();
+			SearchResult r = w.getResult();
+			if(r != null && r.getDepth() > best.getDepth())
+				best = r;
+		}
+		//every root move was searched, so the score is exact
+		table.store(pos.getHash(), best.getMove(), best.getScore(), best.getDepth(),
+				TranspositionTable.EXACT);
+		return new SearchResult(best.getMove(), best.getScore(), best.getDepth(),
+				best.getPrincipalVariation(), nodes, researches);
+	}
+}
@@ -0,0 +1,196 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.Move;
+import com.sfleischer.chess.engine.MoveGenerator;
+import com.sfleischer.chess.engine.MoveStack;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * Decides in which order the moves of a node are searched. Alpha-beta only cuts off
+ * when a good move comes early, so the moves are tried in stages: the move from the
+ * transposition table, then captures that do not lose material with the most
+ * valuable victim and least valuable attacker first (MVV-LVA), then the two killer
+ * moves of the ply, then the quiet moves that caused the most cutoffs so far (the
+ * history heuristic), and last the captures that the static exchange evaluation
+ * says lose material.
+ *
+ * Rather than generating each stage separately, every move gets a score that puts it
+ * in its stage and the next best move is picked only when it is needed. A node that
+ * cuts off after one move never sorts the rest.
+ *
+ * The killers and history are learned by one search, so every thread has its own.
+ * @author sfleischer
+ *
+ */
+public class MoveOrder {
+
+	private static final int HASH_MOVE = 1 << 30;
+	private static final int GOOD_CAPTURE = 1 << 28; //captures and promotions
+	private static final int FIRST_KILLER = 1 << 27;
+	private static final int SECOND_KILLER = FIRST_KILLER - 1;
+	private static final int HISTORY_MAX = 1 << 26; //quiet moves stay below the killers
+	private static final int BAD_CAPTURE = -(1 << 20); //below every quiet move
+
+	//the value of each piece type for MVV-LVA, pawn to king
+	private static final int[] RANK = {1, 2, 3, 4, 5, 6};
+
+	private final int[][] scores; //the score of every move of every ply
+	private final int[][] killers; //two quiet moves per ply that cut off recently
+	private final int[] history; //by from and to square, how much each quiet move cut off
+
+	public MoveOrder(){
+		scores = new int[MoveStack.MAX_PLY][MoveGenerator.MAX_MOVES];
+		killers = new int[MoveStack.MAX_PLY][2];
+		history = new int[64 * 64];
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ORDERING METHODS --------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Scores the moves of a node before the first one is picked
+	 * @param pos The position of the node
+	 * @param moves The moves of the node
+	 * @param count The number of moves
+	 * @param ply The distance from the root
+	 * @param hashMove The move from the transposition table or Move.NONE
+	 */
+	public void score(Position pos, int[] moves, int count, int ply, int hashMove){
+		int[] s = scores[ply];
+		for(int i = 0; i < count; i++){
+			int move = moves[i];
+			if(move == hashMove)
+				s[i] = HASH_MOVE;
+			else if(Move.isCapture(move) || Move.isPromotion(move))
+				s[i] = (isLosing(pos, move) ? BAD_CAPTURE : GOOD_CAPTURE) + mvvLva(pos, move);
+			else if(move == killers[ply][0])
+				s[i] = FIRST_KILLER;
+			else if(move == killers[ply][1])
+				s[i] = SECOND_KILLER;
+			else
+				s[i] = history[move & 0xFFF];
+		}
+	}
+
+	/**
+	 * Moves the best of the moves not yet searched to position i
+	 * @param moves The moves of the node, which are reordered
+	 * @param count The number of moves
+	 * @param i The number of moves already searched
+	 * @param ply The distance from the root
+	 * @return The move to search next
+	 */
+	public int pick(int[] moves, int count, int i, int ply){
+		int[] s = scores[ply];
+		int best = i;
+		for(int j = i + 1; j < count; j++){
+			if(s[j] > s[best])
+				best = j;
+		}
+		int move = moves[best];
+		moves[best] = moves[i];
+		moves[i] = move;
+		int score = s[best];
+		s[best] = s[i];
+		s[i] = score;
+		return move;
+	}
+
+	/**
+	 * Only the captures that lose material score below 0, so the static exchange
+	 * evaluation done for the order does not have to be done again
+	 * @param i The position of a move that was just picked
+	 * @param ply The distance from the root
+	 * @return True if the move is a capture or promotion that loses material
+	 */
+	public boolean isBadCapture(int i, int ply){
+		return scores[ply][i] < 0;
+	}
+
+	/**
+	 * Remembers a quiet move that cut off. Deep cutoffs count for more, since they
+	 * save more work.
+	 * @param move The move
+	 * @param depth The plies that were left at the node
+	 * @param ply The distance from the root
+	 */
+	public void cutoff(int move, int depth, int ply){
+		if(Move.isCapture(move) || Move.isPromotion(move))
+			return;
+		if(killers[ply][0] != move){
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+		int index = move & 0xFFF;
+		history[index] += depth * depth;
+		if(history[index] >= HISTORY_MAX){
+			//keep every entry below the killers but in the same order
+			for(int j = 0; j < history.length; j++){
+				history[j] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return True if the move is one of the two killers of the ply
+	 */
+	public boolean isKiller(int move, int ply){
+		return move == killers[ply][0] || move == killers[ply][1];
+	}
+
+	/**
+	 *
+	 * @return How much the quiet move has cut off, 0 if never
+	 */
+	public int getHistory(int move){
+		return history[move & 0xFFF];
+	}
+
+	/**
+	 * Forgets the killers, which belong to the plies of the last position, and
+	 * weakens the history so the new position can teach its own
+	 */
+	public void newSearch(){
+		for(int[] k : killers){
+			k[0] = Move.NONE;
+			k[1] = Move.NONE;
+		}
+		for(int j = 0; j < history.length; j++){
+			history[j] >>= 3;
+		}
+	}
+
+	/**
+	 * Taking a piece worth at least as much as the attacker never loses, so only the
+	 * other captures need the full exchange played out
+	 * @param pos The position
+	 * @param move A capture or promotion
+	 * @return True if the static exchange evaluation of the move is below 0
+	 */
+	public static boolean isLosing(Position pos, int move){
+		int attacker = Position.typeOf(pos.pieceAt(Move.from(move)));
+		int victim = pos.pieceAt(Move.to(move));
+		if(victim != Position.EMPTY && !Move.isPromotion(move)
+				&& Position.EXCHANGE_VALUE[Position.typeOf(victim)]
+				>= Position.EXCHANGE_VALUE[attacker])
+			return false;
+		return pos.see(move) < 0;
+	}
+
+	/**
+	 * The victim counts ten times more than the attacker, so any capture of a queen
+	 * comes before any capture of a rook
+	 */
+	private static int mvvLva(Position pos, int move){
+		int attacker = Position.typeOf(pos.pieceAt(Move.from(move)));
+		int victim = pos.pieceAt(Move.to(move));
+		int rank = 0;
+		if(Move.isCapture(move)) //en passant lands on an empty square
+			rank = victim == Position.EMPTY ? RANK[Position.PAWN] : RANK[Position.typeOf(victim)];
+		if(Move.isPromotion(move))
+			rank += RANK[Move.promotionType(move)];
+		return rank * 10 - RANK[attacker];
+	}
+}
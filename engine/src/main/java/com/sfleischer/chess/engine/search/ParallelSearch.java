@@ -0,0 +1,58 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * A way of spreading the search of one move over several threads. There are two:
+ * Lazy SMP ("lazy"), where every thread searches the whole tree and they share the
+ * transposition table, and Young Brothers Wait ("ybwc"), where the tree itself is split
+ * into tasks for a fork/join pool. Either way the threads are made once and live as
+ * long as the search, and only one position is searched at a time.
+ * @author sfleischer
+ *
+ */
+public interface ParallelSearch {
+
+	/**
+	 * Iterative deepening from the position until maxDepth is done or the time runs out.
+	 * Precondition: there is at least one legal move
+	 * @param pos The position, which is copied and not changed
+	 * @param moves The legal moves of the position
+	 * @param count The number of moves
+	 * @param maxDepth The deepest iteration to start. The first iteration is always
+	 * searched to the end, even below 1, so there is always a move to play.
+	 * @param timer The time limits or null to search until maxDepth is done
+	 * @param handle The search to tell about every finished iteration or null
+	 * @return The result of the deepest iteration that finished
+	 */
+	public SearchResult search(Position pos, int[] moves, int count, int maxDepth,
+			TimeManager timer, SearchHandle handle);
+
+	/**
+	 *
+	 * @return The number of threads the search uses
+	 */
+	public int getThreads();
+
+	/**
+	 * Lets the threads of the search go for good. No search may be started after.
+	 */
+	public void shutdown();
+
+	/**
+	 *
+	 * @param mode "lazy" or "ybwc"
+	 * @param table The transposition table
+	 * @param threads The number of threads to search with
+	 * @param options Which of the selective parts of the search to use
+	 * @return A parallel search of the given kind
+	 */
+	public static ParallelSearch create(String mode, TranspositionTable table, int threads,
+			SearchOptions options){
+		if(mode.equals("lazy"))
+			return new LazySmp(table, threads, options);
+		if(mode.equals("ybwc"))
+			return new YbwcSearch(table, threads, options);
+		throw new IllegalArgumentException("Unknown parallel search: " + mode);
+	}
+}
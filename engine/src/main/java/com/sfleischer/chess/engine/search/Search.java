@@ -0,0 +1,623 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.Arrays;
+
+import com.sfleischer.chess.engine.Move;
+import com.sfleischer.chess.engine.MoveStack;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * A depth-first negamax search with alpha-beta bounds. Nothing is kept in memory but
+ * the move list and the principal variation of each ply, so memory use does not grow
+ * with the depth. Every score is from the point of view of the side to move, which
+ * lets one method search for both sides by negating the score of each reply.
+ *
+ * Not every move gets the full depth. A position that stays above beta even after
+ * passing the turn is cut off at once (null-move pruning), quiet moves near the
+ * leaves that cannot bring the score up to alpha are skipped (futility pruning and
+ * razoring), and quiet moves that come late in the order are searched less deep
+ * unless they turn out better than expected (late move reductions).
+ *
+ * Once the first move of a node has set alpha, every other move only has to show
+ * that it is no better, which a null window around alpha proves with far fewer
+ * nodes. Only a move that beats alpha is searched again with the full window
+ * (principal variation search). The root starts with a narrow window around the
+ * score of the last iteration and widens it step by step when the score falls
+ * outside (aspiration windows). Each of these can be turned off through
+ * SearchOptions.
+ *
+ * A search owns its position and stacks and must only be used by one thread. The
+ * transposition table may be shared with other searches.
+ *
+ * The time and the node budget are checked every few hundred nodes, well under a
+ * millisecond, and so is the abort flag that another thread can raise with stop().
+ * Once any of them ends the search every call returns at once and the root throws the
+ * unfinished iteration away.
+ * @author sfleischer
+ *
+ */
+public class Search {
+
+	public static final int INFINITY = 32000;
+	public static final int MATE = 31000; //the score of giving mate right now
+	public static final int DRAW = 0;
+	public static final int MAX_PLY = MoveStack.MAX_PLY;
+
+	private static final int CHECK_INTERVAL = 255; //nodes between looking at the time
+	private static final int DELTA = 200; //what the position may gain besides the capture
+	static final int ASPIRATION_WINDOW = 25; //the first half width at the root
+	static final int ASPIRATION_DEPTH = 5; //the first iteration with a window
+
+	//how far below alpha the static score may be at a depth before quiet moves that
+	//give no check are not searched (futility) or the node drops to quiescence (razoring)
+	private static final int[] FUTILITY_MARGIN = {0, 200, 400};
+	private static final int[] RAZOR_MARGIN = {0, 300, 550};
+
+	//how many plies a late quiet move is reduced by, by depth and move number
+	private static final int[][] REDUCTION = new int[64][64];
+
+	static {
+		for(int d = 1; d < 64; d++){
+			for(int i = 1; i < 64; i++){
+				REDUCTION[d][i] = (int) (0.75 + Math.log(d) * Math.log(i) / 2.25);
+			}
+		}
+	}
+
+	private Position position; //the position that is searched in place
+	private final TranspositionTable table;
+	private final SearchOptions options; //which moves may be pruned or reduced
+	private final MoveStack stack; //the move list of every ply
+	private final MoveOrder order; //the killers and history of this search
+	private final int[][] pv; //the principal variation found at each ply
+	private final int[] pvLength; //where the principal variation of each ply ends
+	private long nodes; //the positions visited so far
+	private long researches; //the searches repeated with a wider window so far
+	private TimeManager timer; //the time limits of the running search or null
+	private boolean stopped; //true once the time ran out or the search was aborted
+	private volatile boolean abort; //raised by another thread to end the search
+
+	/**
+	 *
+	 * @param position The position to search. The search plays its moves on it and
+	 * takes them back, so it must not be used by anyone else while the search runs.
+	 * @param table The transposition table
+	 */
+	public Search(Position position, TranspositionTable table){
+		this(position, table, new SearchOptions());
+	}
+
+	/**
+	 *
+	 * @param position The position to search
+	 * @param table The transposition table
+	 * @param options Which of the selective parts of the search to use
+	 */
+	public Search(Position position, TranspositionTable table, SearchOptions options){
+		this.position = position;
+		this.table = table;
+		this.options = options;
+		stack = new MoveStack();
+		order = new MoveOrder();
+		pv = new int[MAX_PLY][MAX_PLY];
+		pvLength = new int[MAX_PLY];
+	}
+
+	/*********************************************************************************
+	 ------------------------------- SEARCH METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * One iteration of iterative deepening. With aspiration windows the root is first
+	 * searched with a narrow window around the score of the last iteration. A score
+	 * outside it is only a bound, so the window is widened on that side, twice as far
+	 * each time, until the score falls inside.
+	 * @param moves The legal moves of the position, best first. A move that fails
+	 * high is moved to the front.
+	 * @param count The number of moves
+	 * @param depth The number of plies to search
+	 * @param previous The result of the last iteration or null
+	 * @param timer The time limits or null to search until the depth is done
+	 * @return The best move with its score and principal variation, or null if the
+	 * time ran out
+	 */
+	public SearchResult searchIteration(int[] moves, int count, int depth,
+			SearchResult previous, TimeManager timer){
+		if(!options.isAspiration() || previous == null || depth < ASPIRATION_DEPTH
+				|| Math.abs(previous.getScore()) > MATE - MAX_PLY)
+			return searchRoot(moves, count, depth, -INFINITY, INFINITY, timer);
+
+		int delta = ASPIRATION_WINDOW;
+		int alpha = previous.getScore() - delta;
+		int beta = previous.getScore() + delta;
+		while(true){
+			SearchResult result = searchRoot(moves, count, depth, alpha, beta, timer);
+			if(result == null || (result.getScore() > alpha && result.getScore() < beta))
+				return result;
+			delta *= 2;
+			if(result.getScore() <= alpha){
+				alpha = Math.max(result.getScore() - delta, -INFINITY);
+			} else {
+				beta = Math.min(result.getScore() + delta, INFINITY);
+				toFront(moves, count, result.getMove());
+			}
+			researches++;
+		}
+	}
+
+	/**
+	 * Searches every given root move with the full window and returns the best
+	 * @see #searchRoot(int[], int, int, int, int, TimeManager)
+	 */
+	public SearchResult searchRoot(int[] moves, int count, int depth, TimeManager timer){
+		return searchRoot(moves, count, depth, -INFINITY, INFINITY, timer);
+	}
+
+	/**
+	 * Searches every given root move and returns the best. The root is not stored in
+	 * the table because the moves may only be some of the legal moves.
+	 * @param moves The legal moves of the position to choose from
+	 * @param count The number of moves
+	 * @param depth The number of plies to search
+	 * @param alpha The lowest score of interest
+	 * @param beta The highest score of interest
+	 * @param timer The time limits or null to search until the depth is done
+	 * @return The best move with its score and principal variation, or null if the
+	 * time ran out before every move was searched. A score at or below alpha or at or
+	 * above beta is only a bound.
+	 */
+	public SearchResult searchRoot(int[] moves, int count, int depth, int alpha, int beta,
+			TimeManager timer){
+		this.timer = timer;
+		stopped = false;
+		int best = -INFINITY;
+		int bestMove = Move.NONE;
+		pvLength[0] = 0;
+		for(int i = 0; i < count; i++){
+			position.makeMove(moves[i]);
+			int score = searchMove(i, depth - 1, 0, alpha, beta, 0);
+			position.unmakeMove();
+			if(stopped)
+				return null;
+			if(score > best){
+				best = score;
+				bestMove = moves[i];
+				if(score > alpha){
+					alpha = score;
+					updatePv(0, moves[i]);
+					if(alpha >= beta)
+						break;
+				}
+			}
+		}
+		return new SearchResult(bestMove, best, depth, getPrincipalVariation(), nodes,
+				researches);
+	}
+
+	/**
+	 * Searches a position that is not the root, for a search that splits the tree
+	 * between threads and hands the small subtrees to one search per thread
+	 * @param pos The position, which becomes the position of this search
+	 * @param depth The plies left to search
+	 * @param alpha The score the side to move is already sure of
+	 * @param beta The score the opponent is already sure of
+	 * @param ply The distance from the root
+	 * @param timer The time limits or null
+	 * @return The score of the position, which means nothing if isStopped()
+	 */
+	int searchNode(Position pos, int depth, int alpha, int beta, int ply, TimeManager timer){
+		position = pos;
+		this.timer = timer;
+		stopped = false;
+		return search(depth, alpha, beta, ply);
+	}
+
+	/**
+	 * RECURSION ALERT
+	 * Base Case: the depth runs out and the quiescence search takes over.
+	 * Otherwise every legal move is played and searched with the window flipped for
+	 * the other side. As soon as a move scores at least <code>beta</code> the opponent
+	 * would never allow this position, so the remaining moves are skipped.
+	 * @param depth The plies left to search
+	 * @param alpha The score the side to move is already sure of
+	 * @param beta The score the opponent is already sure of
+	 * @param ply The distance from the root
+	 * @return The score of the position
+	 */
+	private int search(int depth, int alpha, int beta, int ply){
+		pvLength[ply] = ply;
+		if(depth <= 0)
+			return quiesce(alpha, beta, ply);
+		nodes++;
+		if((nodes & CHECK_INTERVAL) == 0 && isAborted())
+			stopped = true;
+		if(stopped)
+			return 0;
+		if(position.isRepetition() || position.getHalfmoveClock() >= 100)
+			return DRAW;
+		if(ply >= MAX_PLY - 1)
+			return Evaluation.evaluate(position);
+
+		long key = position.getHash();
+		long entry = table.probe(key);
+		int hashMove = entry == 0 ? Move.NONE : TranspositionTable.move(entry);
+		if(entry != 0 && TranspositionTable.depth(entry) >= depth){
+			int score = fromTable(TranspositionTable.score(entry), ply);
+			int bound = TranspositionTable.bound(entry);
+			if(bound == TranspositionTable.EXACT
+					|| (bound == TranspositionTable.LOWER && score >= beta)
+					|| (bound == TranspositionTable.UPPER && score <= alpha))
+				return score;
+		}
+
+		boolean inCheck = position.isInCheck();
+		boolean mateBounds = isMateBound(alpha, beta);
+		int eval = inCheck ? -INFINITY : Evaluation.evaluate(position);
+
+		//razoring: so far below alpha that only a capture could help
+		if(options.isFutility() && !inCheck && !mateBounds
+				&& depth < RAZOR_MARGIN.length && eval + RAZOR_MARGIN[depth] < alpha){
+			int score = quiesce(alpha, beta, ply);
+			if(score < alpha)
+				return score;
+		}
+
+		if(canNullMove(position, depth, alpha, beta, eval, inCheck)){
+			position.makeNullMove();
+			int score = -search(nullMoveDepth(depth), -beta, -beta + 1, ply + 1);
+			position.unmakeNullMove();
+			if(stopped)
+				return 0;
+			if(score >= beta)
+				return score > MATE - MAX_PLY ? beta : score;
+		}
+
+		int count = stack.generate(position, ply);
+		if(count == 0)
+			return inCheck ? -MATE + ply : DRAW;
+
+		boolean futile = options.isFutility() && !inCheck && !mateBounds
+				&& depth < FUTILITY_MARGIN.length && eval + FUTILITY_MARGIN[depth] <= alpha;
+		int[] moves = stack.get(ply);
+		order.score(position, moves, count, ply, hashMove);
+		int start = alpha;
+		int best = -INFINITY;
+		int bestMove = Move.NONE;
+		for(int i = 0; i < count; i++){
+			int move = order.pick(moves, count, i, ply);
+			boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
+			position.makeMove(move);
+			boolean check = position.isInCheck();
+
+			if(futile && i > 0 && quiet && !check){
+				position.unmakeMove();
+				best = Math.max(best, eval + FUTILITY_MARGIN[depth]);
+				continue;
+			}
+
+			int r = reduction(move, depth, i, ply, inCheck, check);
+			int score = searchMove(i, depth - 1, r, alpha, beta, ply);
+			position.unmakeMove();
+			if(stopped)
+				return 0;
+			if(score > best){
+				best = score;
+				bestMove = move;
+				if(score > alpha){
+					alpha = score;
+					updatePv(ply, move);
+					if(alpha >= beta){
+						order.cutoff(move, depth, ply);
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = best >= beta ? TranspositionTable.LOWER
+				: best > start ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		//a move that failed low is no better than the others
+		if(bound == TranspositionTable.UPPER)
+			bestMove = Move.NONE;
+		table.store(key, bestMove, toTable(best, ply), depth, bound);
+		return best;
+	}
+
+	/**
+	 * Searches the move that was just played. The first move of a node gets the full
+	 * window. Every other move gets a null window around alpha, at a reduced depth if
+	 * r is above 0, and is searched again in full only if it beats alpha.
+	 * @param i The number of moves searched before this one
+	 * @param depth The plies left after the move
+	 * @param r The plies the move is reduced by
+	 * @param alpha The score the side that moved is already sure of
+	 * @param beta The score the opponent is already sure of
+	 * @param ply The distance of the node from the root
+	 * @return The score of the move for the side that moved
+	 */
+	private int searchMove(int i, int depth, int r, int alpha, int beta, int ply){
+		boolean pvs = options.isPvs();
+		if(i == 0 || (r == 0 && !pvs))
+			return -search(depth, -beta, -alpha, ply + 1);
+		int score = -search(depth - r, -alpha - 1, -alpha, ply + 1);
+		//better than expected, so it gets the full depth after all
+		if(score > alpha && r > 0 && pvs && !stopped){
+			researches++;
+			score = -search(depth, -alpha - 1, -alpha, ply + 1);
+		}
+		//inside the window, so the exact score is needed
+		if(score > alpha && (score < beta || !pvs) && !stopped){
+			researches++;
+			score = -search(depth, -beta, -alpha, ply + 1);
+		}
+		return score;
+	}
+
+	/**
+	 * Null move: if passing still scores beta, a real move will too. Not in pawn
+	 * endings, where having to move can be the only thing that loses (zugzwang), and
+	 * never twice in a row.
+	 * @param pos The position of the node
+	 * @param depth The plies left to search
+	 * @param alpha The score the side to move is already sure of
+	 * @param beta The score the opponent is already sure of
+	 * @param eval The static score of the position
+	 * @param inCheck True if the side to move is in check
+	 * @return True if the node may try passing, searched to nullMoveDepth
+	 */
+	boolean canNullMove(Position pos, int depth, int alpha, int beta, int eval,
+			boolean inCheck){
+		return options.isNullMove() && !inCheck && !isMateBound(alpha, beta) && depth >= 3
+				&& eval >= beta && pos.getLastMove() != Move.NONE
+				&& pos.hasNonPawnMaterial(pos.getSide());
+	}
+
+	/**
+	 * Late move reductions: a quiet move that comes late in the order is searched
+	 * less deep, unless it is a killer, gives check or answers one
+	 * @param move The move
+	 * @param depth The plies left to search at the node
+	 * @param i The number of moves searched before this one
+	 * @param ply The distance of the node from the root
+	 * @param inCheck True if the side to move is in check
+	 * @param check True if the move gives check
+	 * @return The plies the move is reduced by, 0 for the full depth
+	 */
+	int reduction(int move, int depth, int i, int ply, boolean inCheck, boolean check){
+		if(!options.isLateMoveReductions() || depth < 3 || i < 3 || inCheck || check
+				|| Move.isCapture(move) || Move.isPromotion(move)
+				|| order.isKiller(move, ply))
+			return 0;
+		int r = REDUCTION[Math.min(depth, 63)][Math.min(i, 63)];
+		//a move that has cut off elsewhere deserves a closer look
+		if(order.getHistory(move) > 0)
+			r--;
+		return Math.max(0, Math.min(r, depth - 2));
+	}
+
+	/**
+	 * Ends the running search from another thread. The search notices within a few
+	 * hundred nodes and keeps returning null until reset() is called.
+	 */
+	public void stop(){
+		abort = true;
+	}
+
+	/**
+	 * Called before the search of a new position, so the killers of the last one are
+	 * not tried where they make no sense. The history is kept, only weakened, and the
+	 * nodes and researches are counted from 0 again.
+	 */
+	public void newSearch(){
+		order.newSearch();
+		nodes = 0;
+		researches = 0;
+	}
+
+	/**
+	 * Clears the abort flag. This must happen before the search is handed to its
+	 * thread, or a stop() that comes early could be lost.
+	 */
+	public void reset(){
+		abort = false;
+	}
+
+	/**
+	 * RECURSION ALERT
+	 * Searches only captures and promotions until the position is quiet, so a leaf is
+	 * never scored in the middle of an exchange. The side to move may also "stand pat"
+	 * and keep the static score, since it is never forced to capture. A capture that
+	 * could not bring the score up to alpha even with a margin is not searched (delta
+	 * pruning), and neither is one that loses material once every piece that can take
+	 * on the square has (static exchange evaluation). A side in check may not stand
+	 * pat and has to try every way out.
+	 * Base Case: there is no capture worth searching or the stand pat reaches beta.
+	 * @param alpha The score the side to move is already sure of
+	 * @param beta The score the opponent is already sure of
+	 * @param ply The distance from the root
+	 * @return The score of the position once it is quiet
+	 */
+	private int quiesce(int alpha, int beta, int ply){
+		nodes++;
+		if((nodes & CHECK_INTERVAL) == 0 && isAborted())
+			stopped = true;
+		if(stopped)
+			return 0;
+		if(position.isRepetition() || position.getHalfmoveClock() >= 100)
+			return DRAW;
+		if(ply >= MAX_PLY - 1)
+			return Evaluation.evaluate(position);
+
+		boolean inCheck = position.isInCheck();
+		int standPat = -INFINITY;
+		int best = -INFINITY;
+		int count;
+		if(inCheck){
+			count = stack.generate(position, ply);
+			if(count == 0)
+				return -MATE + ply;
+		} else {
+			standPat = Evaluation.evaluate(position);
+			best = standPat;
+			if(best >= beta)
+				return best;
+			//not even winning the queen would be enough
+			if(standPat + Evaluation.VALUE[Position.QUEEN] + DELTA < alpha)
+				return best;
+			if(best > alpha)
+				alpha = best;
+			count = stack.generateCaptures(position, ply);
+		}
+
+		int[] moves = stack.get(ply);
+		order.score(position, moves, count, ply, Move.NONE);
+		for(int i = 0; i < count; i++){
+			int move = order.pick(moves, count, i, ply);
+			if(!inCheck && !Move.isPromotion(move)
+					&& (standPat + captured(move) + DELTA < alpha
+					|| order.isBadCapture(i, ply)))
+				continue;
+			position.makeMove(move);
+			int score = -quiesce(-beta, -alpha, ply + 1);
+			position.unmakeMove();
+			if(stopped)
+				return 0;
+			if(score > best){
+				best = score;
+				if(score > alpha){
+					alpha = score;
+					if(alpha >= beta)
+						break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ACCESSOR METHODS --------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Looked at every few hundred nodes. Subclasses may end the search for reasons
+	 * of their own.
+	 * @return True if the search has to stop
+	 */
+	protected boolean isAborted(){
+		return abort || (timer != null && timer.isOutOfTime(CHECK_INTERVAL + 1));
+	}
+
+	/**
+	 *
+	 * @return The move ordering of this search
+	 */
+	MoveOrder getOrder(){
+		return order;
+	}
+
+	/**
+	 *
+	 * @return True if the last search was cut off before it finished
+	 */
+	public boolean isStopped(){
+		return stopped;
+	}
+
+	/**
+	 *
+	 * @return The searches repeated with a wider window since the search was created
+	 */
+	public long getResearches(){
+		return researches;
+	}
+
+	/**
+	 *
+	 * @return The principal variation of the last root search
+	 */
+	public int[] getPrincipalVariation(){
+		return Arrays.copyOf(pv[0], pvLength[0]);
+	}
+
+	/**
+	 *
+	 * @return The number of positions visited by this search
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- HELPER METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * The move becomes the first move of the principal variation of the ply, followed
+	 * by the principal variation of the reply
+	 */
+	private void updatePv(int ply, int move){
+		pv[ply][ply] = move;
+		int end = pvLength[ply + 1];
+		System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, end - ply - 1);
+		pvLength[ply] = Math.max(end, ply + 1);
+	}
+
+	/**
+	 * @return The value of the piece the capture takes
+	 */
+	private int captured(int move){
+		int victim = position.pieceAt(Move.to(move));
+		//en passant lands on an empty square
+		if(victim == Position.EMPTY)
+			return Evaluation.VALUE[Position.PAWN];
+		return Evaluation.VALUE[Position.typeOf(victim)];
+	}
+
+	/**
+	 * Moves the move to the front of the list and shifts the moves before it back
+	 */
+	static void toFront(int[] moves, int count, int move){
+		for(int i = 0; i < count; i++){
+			if(moves[i] == move){
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = move;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return The depth the null move of a node is searched to
+	 */
+	static int nullMoveDepth(int depth){
+		return depth - 1 - (depth >= 6 ? 3 : 2);
+	}
+
+	/**
+	 * Pruning on the static score makes no sense while a mate is in sight
+	 * @return True if alpha or beta is a mate score
+	 */
+	static boolean isMateBound(int alpha, int beta){
+		return Math.abs(alpha) > MATE - MAX_PLY || Math.abs(beta) > MATE - MAX_PLY;
+	}
+
+	/**
+	 * Mate scores count the plies from the root, but the table needs them counted from
+	 * the stored position so they stay right when the position is reached elsewhere
+	 */
+	static int toTable(int score, int ply){
+		if(score > MATE - MAX_PLY)
+			return score + ply;
+		if(score < -MATE + MAX_PLY)
+			return score - ply;
+		return score;
+	}
+
+	static int fromTable(int score, int ply){
+		if(score > MATE - MAX_PLY)
+			return score - ply;
+		if(score < -MATE + MAX_PLY)
+			return score + ply;
+		return score;
+	}
+}
@@ -0,0 +1,121 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A search that was started with Engine.start and runs on threads of its own. It can
+ * be stopped at any time, and the best move of the deepest iteration that finished is
+ * there to read while it runs. Every method may be called from any thread.
+ * @author sfleischer
+ *
+ */
+public class SearchHandle {
+
+	private final SearchLimits limits; //the limits it was started with
+	private final TimeManager timer; //the time and node limits, which stop() ends
+	private final CountDownLatch done; //released once the threads are free
+	private volatile SearchResult best; //the deepest iteration that finished or null
+	private volatile SearchResult result; //the result once the search is over
+
+	SearchHandle(SearchLimits limits){
+		this.limits = limits;
+		timer = limits.createTimer();
+		done = new CountDownLatch(1);
+	}
+
+	/**
+	 * Ends the search. Its threads notice within about a millisecond; get() waits for
+	 * them. The first iteration always finishes, so there is still a move to play.
+	 */
+	public void stop(){
+		timer.stop();
+	}
+
+	/**
+	 * The opponent played the move that was pondered, so the search goes on under the
+	 * limits of a real move. The time spent so far counts as part of that move.
+	 * @param limits The limits of the move
+	 */
+	public void ponderHit(SearchLimits limits){
+		timer.ponderHit(limits.createTimer());
+	}
+
+	/**
+	 *
+	 * @return The result of the deepest iteration that finished so far or null
+	 */
+	public SearchResult getBest(){
+		SearchResult r = result;
+		return r != null ? r : best;
+	}
+
+	/**
+	 * Waits for the search to end
+	 * @return The result of the search
+	 */
+	public SearchResult get() throws InterruptedException{
+		done.await();
+		return result;
+	}
+
+	/**
+	 *
+	 * @return True once the search is over and its threads are free
+	 */
+	public boolean isDone(){
+		return done.getCount() == 0;
+	}
+
+	/**
+	 *
+	 * @return The milliseconds since the search started
+	 */
+	public long getElapsed(){
+		return timer.getElapsed();
+	}
+
+	public SearchLimits getLimits(){
+		return limits;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- SEARCH METHODS ----------------------------------
+	 ********************************************************************************/
+
+	TimeManager getTimer(){
+		return timer;
+	}
+
+	/**
+	 * Called by the search after every iteration it finished
+	 */
+	void iterationDone(SearchResult r){
+		best = r;
+	}
+
+	/**
+	 * Waits for the search to end even if the waiting thread is interrupted, since the
+	 * next search must not start while this one still has the threads
+	 */
+	void awaitDone(){
+		boolean interrupted = false;
+		while(true){
+			try{
+				done.await();
+				break;
+			} catch(InterruptedException e){
+				interrupted = true;
+			}
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Called once by the thread that ran the search
+	 */
+	void finish(SearchResult r){
+		result = r;
+		done.countDown();
+	}
+}
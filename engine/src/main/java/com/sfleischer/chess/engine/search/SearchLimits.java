@@ -0,0 +1,139 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.GameClock;
+import com.sfleischer.chess.engine.Polarity;
+
+/**
+ * When a search given to the Engine has to stop: after a depth, after a number of
+ * nodes, after a fixed time, when the time on the clock says so, or never until it is
+ * told to. The limits only say what to do; the time starts when the search starts.
+ * They never change once created, so the with methods return new limits.
+ * @author sfleischer
+ *
+ */
+public class SearchLimits {
+
+	private final int depth; //the deepest iteration to start
+	private final long nodes; //the nodes to visit, Long.MAX_VALUE for no limit
+	private final long moveTime; //the milliseconds to spend, 0 to use the clock
+	private final long remaining; //the time on the clock, 0 without a clock
+	private final long increment; //the time added to the clock after every move
+	private final boolean infinite; //no time limit until stop() is called
+
+	private SearchLimits(int depth, long nodes, long moveTime, long remaining,
+			long increment, boolean infinite){
+		this.depth = depth;
+		this.nodes = nodes;
+		this.moveTime = moveTime;
+		this.remaining = remaining;
+		this.increment = increment;
+		this.infinite = infinite;
+	}
+
+	/**
+	 *
+	 * @return Limits that never run out, so the search goes on until it is stopped
+	 */
+	public static SearchLimits infinite(){
+		return new SearchLimits(Engine.MAX_DEPTH, Long.MAX_VALUE, 0, 0, 0, true);
+	}
+
+	/**
+	 *
+	 * @param depth The deepest iteration to start
+	 * @return Limits that stop after the iteration of the depth and not before
+	 */
+	public static SearchLimits depth(int depth){
+		return infinite().withDepth(depth);
+	}
+
+	/**
+	 *
+	 * @param nodes The nodes the search may visit, counting every thread
+	 * @return Limits that stop after the nodes and not before
+	 */
+	public static SearchLimits nodes(long nodes){
+		return infinite().withNodes(nodes);
+	}
+
+	/**
+	 *
+	 * @param millis The exact time to spend
+	 * @return Limits that use all of the time
+	 */
+	public static SearchLimits moveTime(long millis){
+		return new SearchLimits(Engine.MAX_DEPTH, Long.MAX_VALUE, millis, 0, 0, false);
+	}
+
+	/**
+	 * The time on the clock is read now, so this is for the side that is about to move
+	 * @param clock The clock of the game or null if it is not timed
+	 * @param side The side that is to move
+	 * @return Limits that share the time on the clock out over the rest of the game
+	 */
+	public static SearchLimits forClock(GameClock clock, Polarity side){
+		if(clock == null)
+			return moveTime(TimeManager.DEFAULT_MOVE_TIME);
+		return new SearchLimits(Engine.MAX_DEPTH, Long.MAX_VALUE, 0,
+				Math.max(clock.getRemaining(side), 1), clock.getIncrement(), false);
+	}
+
+	/**
+	 *
+	 * @param depth The deepest iteration to start
+	 * @return The same limits with a depth limit
+	 */
+	public SearchLimits withDepth(int depth){
+		return new SearchLimits(depth, nodes, moveTime, remaining, increment, infinite);
+	}
+
+	/**
+	 *
+	 * @param nodes The nodes the search may visit, counting every thread
+	 * @return The same limits with a node limit
+	 */
+	public SearchLimits withNodes(long nodes){
+		return new SearchLimits(depth, nodes, moveTime, remaining, increment, infinite);
+	}
+
+	/**
+	 * Called when the search starts
+	 * @return The time and node limits, starting now
+	 */
+	TimeManager createTimer(){
+		TimeManager timer;
+		if(infinite)
+			timer = TimeManager.forInfinite();
+		else if(moveTime > 0)
+			timer = TimeManager.forMoveTime(moveTime);
+		else
+			timer = TimeManager.forClock(remaining, increment);
+		timer.limitNodes(nodes);
+		return timer;
+	}
+
+	public int getDepth(){
+		return depth;
+	}
+
+	public long getNodes(){
+		return nodes;
+	}
+
+	public long getMoveTime(){
+		return moveTime;
+	}
+
+	public boolean isInfinite(){
+		return infinite;
+	}
+
+	@Override
+	public String toString(){
+		if(infinite)
+			return "depth " + depth + " nodes " + nodes + " infinite";
+		if(moveTime > 0)
+			return "depth " + depth + " nodes " + nodes + " movetime " + moveTime;
+		return "depth " + depth + " nodes " + nodes + " clock " + remaining + "+" + increment;
+	}
+}
@@ -0,0 +1,16 @@
+package com.sfleischer.chess.engine.search;
+
+/**
+ * Told when a search started with Engine.start is over
+ * @author sfleischer
+ *
+ */
+public interface SearchListener {
+
+	/**
+	 * Called once on the thread that ran the search, after its threads are free for
+	 * the next one, whether it finished or was stopped
+	 * @param search The search, whose result is ready
+	 */
+	public void searchDone(SearchHandle search);
+}
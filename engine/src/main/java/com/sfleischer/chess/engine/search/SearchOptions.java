@@ -0,0 +1,76 @@
+package com.sfleischer.chess.engine.search;
+
+/**
+ * Switches for the parts of the search that skip or shorten moves which are unlikely
+ * to matter, and for the narrow windows that let more of the tree be cut off. Each
+ * can be turned off on its own to measure what it is worth, in nodes and in games.
+ * The options never change once created, so every thread of a search can read them.
+ * @author sfleischer
+ *
+ */
+public class SearchOptions {
+
+	private final boolean nullMove; //null-move pruning
+	private final boolean lateMoveReductions; //search late quiet moves less deep
+	private final boolean futility; //futility pruning and razoring near the leaves
+	private final boolean pvs; //principal variation search
+	private final boolean aspiration; //aspiration windows at the root
+
+	/**
+	 * Every option is on
+	 */
+	public SearchOptions(){
+		this(true, true, true, true, true);
+	}
+
+	public SearchOptions(boolean nullMove, boolean lateMoveReductions, boolean futility,
+			boolean pvs, boolean aspiration){
+		this.nullMove = nullMove;
+		this.lateMoveReductions = lateMoveReductions;
+		this.futility = futility;
+		this.pvs = pvs;
+		this.aspiration = aspiration;
+	}
+
+	/**
+	 * Every option is on unless it is turned off when the engine starts with
+	 * <code>-Dchess.nullmove=false</code>, <code>-Dchess.lmr=false</code>,
+	 * <code>-Dchess.futility=false</code>, <code>-Dchess.pvs=false</code> or
+	 * <code>-Dchess.aspiration=false</code>
+	 * @return The options given to the engine
+	 */
+	public static SearchOptions fromProperties(){
+		return new SearchOptions(isOn("chess.nullmove"), isOn("chess.lmr"),
+				isOn("chess.futility"), isOn("chess.pvs"), isOn("chess.aspiration"));
+	}
+
+	private static boolean isOn(String property){
+		return !"false".equalsIgnoreCase(System.getProperty(property));
+	}
+
+	public boolean isNullMove(){
+		return nullMove;
+	}
+
+	public boolean isLateMoveReductions(){
+		return lateMoveReductions;
+	}
+
+	public boolean isFutility(){
+		return futility;
+	}
+
+	public boolean isPvs(){
+		return pvs;
+	}
+
+	public boolean isAspiration(){
+		return aspiration;
+	}
+
+	@Override
+	public String toString(){
+		return "nullmove " + nullMove + " lmr " + lateMoveReductions
+				+ " futility " + futility + " pvs " + pvs + " aspiration " + aspiration;
+	}
+}
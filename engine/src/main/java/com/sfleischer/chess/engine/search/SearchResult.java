@@ -0,0 +1,73 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.Move;
+
+/**
+ * What a finished search found: the best move, its score and the line of play the
+ * search expects (the principal variation). Results never change once created, so
+ * they can be handed between threads freely.
+ * @author sfleischer
+ *
+ */
+public class SearchResult {
+
+	private final int move; //the best move or Move.NONE
+	private final int score; //the score of the move in centipawns for the side to move
+	private final int depth; //the depth that was searched
+	private final int[] pv; //the principal variation, starting with the best move
+	private final long nodes; //the number of positions visited
+	private final long researches; //how often a narrow window had to be widened
+
+	public SearchResult(int move, int score, int depth, int[] pv, long nodes,
+			long researches){
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.pv = pv;
+		this.nodes = nodes;
+		this.researches = researches;
+	}
+
+	public int getMove(){
+		return move;
+	}
+
+	public int getScore(){
+		return score;
+	}
+
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 *
+	 * @return A copy of the principal variation
+	 */
+	public int[] getPrincipalVariation(){
+		return pv.clone();
+	}
+
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 *
+	 * @return How often a move or the root was searched again with a wider window
+	 * because the narrow one failed
+	 */
+	public long getResearches(){
+		return researches;
+	}
+
+	@Override
+	public String toString(){
+		String line = "";
+		for(int move : pv){
+			line = line + " " + Move.toString(move);
+		}
+		return "depth " + depth + " score " + score + " nodes " + nodes
+				+ " researches " + researches + " pv" + line;
+	}
+}
@@ -0,0 +1,29 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes the long-lived threads of the engine. They are daemon threads, so a search
+ * never keeps the program from exiting, and they are numbered by what they do, so a
+ * thread dump shows which is which.
+ * @author sfleischer
+ *
+ */
+class SearchThreadFactory implements ThreadFactory{
+
+	private final String name; //what the threads do
+	private final AtomicInteger count; //the threads made so far
+
+	SearchThreadFactory(String name){
+		this.name = name;
+		count = new AtomicInteger();
+	}
+
+	@Override
+	public Thread newThread(Runnable r){
+		Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
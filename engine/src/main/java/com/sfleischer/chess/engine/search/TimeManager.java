@@ -0,0 +1,138 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how long the computer may think about one move. There are two limits: after
+ * the soft limit no new iteration of the search is started, because the next depth
+ * takes several times as long as the last one and would most likely be cut off anyway.
+ * The hard limit stops the search in the middle of an iteration. A search may also be
+ * given a budget of nodes, which every thread counts against as it goes.
+ *
+ * While the computer ponders on the opponent's time there are no limits at all. If
+ * the opponent plays the expected move the limits of the real move take over, and
+ * the search that is already running goes on or stops without starting again. The limits
+ * change while the search threads read them, so they are volatile. Only the methods
+ * that change them are synchronized; every search thread looks at the time every few
+ * hundred nodes, and a lock there would be taken by all of them at once.
+ * @author sfleischer
+ *
+ */
+public class TimeManager {
+
+	public static final long DEFAULT_MOVE_TIME = 2000; //the time per move without a clock
+
+	private static final int MOVES_TO_GO = 30; //how many moves the time left must last
+	private static final long OVERHEAD = 50; //kept back for playing the move itself
+
+	private final long start; //when the move started (System.nanoTime)
+	private final AtomicLong nodes; //the nodes counted so far by every thread
+	private volatile long soft; //no new iteration after this many milliseconds
+	private volatile long hard; //the search stops after this many milliseconds
+	private volatile long maxNodes; //the search stops after this many nodes
+
+	private TimeManager(long soft, long hard){
+		start = System.nanoTime();
+		nodes = new AtomicLong();
+		this.soft = soft;
+		this.hard = hard;
+		maxNodes = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Spreads the time on the clock over the moves that are still to come and adds
+	 * most of the increment, since it comes back after the move anyway
+	 * @param remaining The time the side has left in milliseconds
+	 * @param increment The time added after every move in milliseconds
+	 * @return The limits for the next move, starting now
+	 */
+	public static TimeManager forClock(long remaining, long increment){
+		long usable = Math.max(remaining - OVERHEAD, 1);
+		long target = usable / MOVES_TO_GO + increment * 3 / 4;
+		long hard = Math.max(1, Math.min(target * 3, usable / 4));
+		long soft = Math.min(target / 2, hard);
+		return new TimeManager(soft, hard);
+	}
+
+	/**
+	 *
+	 * @param millis The exact time to spend on the move
+	 * @return Limits that use all of the time, starting now
+	 */
+	public static TimeManager forMoveTime(long millis){
+		return new TimeManager(millis, millis);
+	}
+
+	/**
+	 *
+	 * @return Limits that never run out until ponderHit or stop is called, for
+	 * pondering or for searching until told to stop
+	 */
+	public static TimeManager forInfinite(){
+		return new TimeManager(Long.MAX_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * The opponent played the move that was pondered, so from now on the limits of the
+	 * real move apply. The time spent pondering counts as time spent on the move, so
+	 * after a long ponder the move is played at once and after a short one the search
+	 * only carries on for what is left of the time.
+	 * @param limits The limits the move would have had without pondering
+	 */
+	public synchronized void ponderHit(TimeManager limits){
+		soft = limits.soft;
+		hard = limits.hard;
+		maxNodes = limits.maxNodes;
+	}
+
+	/**
+	 * Called before the search starts
+	 * @param max The nodes the search may visit, counting every thread
+	 */
+	public synchronized void limitNodes(long max){
+		maxNodes = max;
+	}
+
+	/**
+	 * Makes the search stop as soon as it next looks at the time. Called from another
+	 * thread, for example when the opponent did not play the pondered move.
+	 */
+	public synchronized void stop(){
+		soft = 0;
+		hard = 0;
+		maxNodes = 0;
+	}
+
+	/**
+	 *
+	 * @return The milliseconds since the move started
+	 */
+	public long getElapsed(){
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	/**
+	 *
+	 * @return True if there is time left for another iteration
+	 */
+	public boolean canStartIteration(){
+		return getElapsed() < soft && nodes.get() < maxNodes;
+	}
+
+	/**
+	 *
+	 * @return True if the search has to stop right now
+	 */
+	public boolean isOutOfTime(){
+		return getElapsed() >= hard || nodes.get() >= maxNodes;
+	}
+
+	/**
+	 * Counts the nodes a thread searched since it last looked, then looks
+	 * @param searched The number of nodes
+	 * @return True if the search has to stop right now
+	 */
+	public boolean isOutOfTime(long searched){
+		return nodes.addAndGet(searched) >= maxNodes || getElapsed() >= hard;
+	}
+}
@@ -0,0 +1,236 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.Move;
+
+/**
+ * A fixed size hash table of search results that every search thread shares without
+ * any locks. Each entry is two <code>long</code>s: the packed data (move, score, depth,
+ * bound and the search it came from) and the Zobrist key XORed with that data. Two
+ * threads writing the same slot at once can leave the key of one entry next to the
+ * data of the other, but then the XOR no longer gives back the key being probed, so a
+ * torn entry simply reads as a miss instead of a wrong result.
+ *
+ * Entries are grouped into buckets of four (64 bytes, one cache line). A position is
+ * stored over an entry of the same position unless that entry is a deeper result of
+ * the current search, otherwise over the entry that is worth the least: the shallowest
+ * one, counting entries from older searches as shallower.
+ *
+ * Subclasses only decide where the longs live: <code>HeapTranspositionTable</code>
+ * keeps them in an array and <code>DirectTranspositionTable</code> outside of the
+ * Java heap.
+ * @author sfleischer
+ *
+ */
+public abstract class TranspositionTable {
+
+	//bound types
+	public static final int EXACT = 1; //the score is the value of the position
+	public static final int LOWER = 2; //the value is at least the score (failed high)
+	public static final int UPPER = 3; //the value is at most the score (failed low)
+
+	public static final int ENTRY_BYTES = 16;
+	public static final int BUCKET_ENTRIES = 4;
+	public static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+
+	private final long bucketMask; //the number of buckets minus one
+	private volatile int generation; //the number of the current search
+
+	/**
+	 * @param buckets The number of buckets, a power of two
+	 */
+	protected TranspositionTable(long buckets){
+		bucketMask = buckets - 1;
+	}
+
+	/**
+	 * Creates the kind of table picked when the engine starts
+	 * @param megabytes The size of the table
+	 * @param offHeap True to keep the table outside of the Java heap
+	 * @return The new table
+	 */
+	public static TranspositionTable create(int megabytes, boolean offHeap){
+		if(offHeap)
+			return new DirectTranspositionTable(megabytes);
+		return new HeapTranspositionTable(megabytes);
+	}
+
+	/**
+	 * The number of buckets is rounded down to a power of two so that a bucket can be
+	 * found with a mask
+	 * @param megabytes The size of the table
+	 * @param max The most buckets the table can hold
+	 * @return The number of buckets that fit
+	 */
+	protected static long buckets(int megabytes, long max){
+		if(megabytes < 1)
+			throw new IllegalArgumentException("The table needs at least 1 MB");
+		long buckets = Long.highestOneBit(((long) megabytes << 20) / BUCKET_BYTES);
+		return Math.min(buckets, max);
+	}
+
+	/*********************************************************************************
+	 ------------------------------- STORAGE METHODS ---------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * @param index The index of a long in the table
+	 * @return The long at the index
+	 */
+	protected abstract long read(long index);
+
+	/**
+	 * @param index The index of a long in the table
+	 * @param value The value to write
+	 */
+	protected abstract void write(long index, long value);
+
+	/**
+	 * Sets every long of the table to 0
+	 */
+	protected abstract void erase();
+
+	/*********************************************************************************
+	 ------------------------------- ACCESSOR METHODS --------------------------------
+	 ********************************************************************************/
+
+	/**
+	 *
+	 * @param key The Zobrist hash of the position
+	 * @return The packed data stored for the position or 0 if there is none. Use the
+	 * static methods of this class to unpack it.
+	 */
+	public long probe(long key){
+		long index = bucket(key);
+		for(int i = 0; i < BUCKET_ENTRIES * 2; i += 2){
+			long data = read(index + i + 1);
+			if((read(index + i) ^ data) == key && data != 0)
+				return data;
+		}
+		return 0;
+	}
+
+	/**
+	 *
+	 * @return The size of the table in bytes
+	 */
+	public long getSize(){
+		return (bucketMask + 1) * BUCKET_BYTES;
+	}
+
+	/**
+	 * Samples the first thousand entries
+	 * @return How full the table is with entries of the current search, per mille
+	 */
+	public int getUsage(){
+		int used = 0;
+		long samples = Math.min(1000, (bucketMask + 1) * BUCKET_ENTRIES);
+		for(int i = 0; i < samples; i++){
+			long data = read(i * 2 + 1);
+			if(data != 0 && generation(data) == (generation & 0xFF))
+				used++;
+		}
+		return (int) (used * 1000 / samples);
+	}
+
+	/*********************************************************************************
+	 ------------------------------- MUTATOR METHODS ---------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * Stores the result of searching a position
+	 * @param key The Zobrist hash of the position
+	 * @param move The best move found or <code>Move.NONE</code>
+	 * @param score The score of the position
+	 * @param depth The depth the position was searched to
+	 * @param bound <code>EXACT</code>, <code>LOWER</code> or <code>UPPER</code>
+	 */
+	public void store(long key, int move, int score, int depth, int bound){
+		long index = bucket(key);
+		int gen = generation & 0xFF;
+		long replace = index;
+		int worst = Integer.MAX_VALUE;
+		for(long i = index; i < index + BUCKET_ENTRIES * 2; i += 2){
+			long data = read(i + 1);
+			if(data == 0){
+				replace = i;
+				break;
+			}
+			if((read(i) ^ data) == key){
+				if(generation(data) == gen && depth(data) > depth && bound != EXACT)
+					return;
+				//keep the old best move if this search did not find one
+				if(move == Move.NONE)
+					move = move(data);
+				replace = i;
+				break;
+			}
+			//entries of older searches are worth less than anything found now
+			int age = (gen - generation(data)) & 0xFF;
+			int value = depth(data) - 8 * age;
+			if(value < worst){
+				worst = value;
+				replace = i;
+			}
+		}
+		long data = pack(move, score, depth, bound, gen);
+		write(replace, key ^ data);
+		write(replace + 1, data);
+	}
+
+	/**
+	 * Starts a new search. Entries of earlier searches stay usable but are replaced
+	 * first.
+	 */
+	public void newSearch(){
+		generation++;
+	}
+
+	/**
+	 * Empties the table, for example when a new game starts
+	 */
+	public void clear(){
+		erase();
+		generation = 0;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- ENTRY METHODS -----------------------------------
+	 ********************************************************************************/
+
+	public static long pack(int move, int score, int depth, int bound, int generation){
+		return (move & 0xFFFFL)
+				| ((score & 0xFFFFL) << 16)
+				| ((long) (depth & 0xFF) << 32)
+				| ((long) bound << 40)
+				| ((long) (generation & 0xFF) << 42);
+	}
+
+	public static int move(long data){
+		return (int) (data & 0xFFFF);
+	}
+
+	public static int score(long data){
+		return (short) (data >>> 16);
+	}
+
+	public static int depth(long data){
+		return (int) (data >>> 32) & 0xFF;
+	}
+
+	public static int bound(long data){
+		return (int) (data >>> 40) & 3;
+	}
+
+	public static int generation(long data){
+		return (int) (data >>> 42) & 0xFF;
+	}
+
+	/**
+	 *
+	 * @return The index of the first long of the bucket of the key
+	 */
+	private long bucket(long key){
+		//the low bits of the key pick the bucket
+		return (key & bucketMask) * BUCKET_ENTRIES * 2;
+	}
+}
@@ -0,0 +1,118 @@
+package com.sfleischer.chess.engine.search;
+
+import com.sfleischer.chess.engine.MoveGenerator;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * One thread of the Lazy SMP search. Every worker runs the whole iterative deepening
+ * search on its own copy of the position; they only talk through the shared
+ * transposition table. Helpers search at slightly different depths than the main
+ * worker, so they fill the table with entries the main worker will soon need.
+ *
+ * A worker lives as long as its Lazy SMP search. Its position, move stacks, killers
+ * and history are reused from move to move, so nothing is allocated per search.
+ * @author sfleischer
+ *
+ */
+public class Worker implements Runnable{
+
+	private final int id; //0 for the main worker, higher for helpers
+	private final Position position; //the worker's own copy of the position
+	private final Search search; //the worker's own search
+	private final int[] rootMoves; //the legal moves of the position, best first
+	private int count; //the number of legal moves
+	private int maxDepth; //the deepest iteration to start
+	private TimeManager timer; //the time and node limits or null
+	private SearchHandle handle; //told about every finished iteration or null
+	private volatile SearchResult result; //the deepest iteration that finished
+
+	/**
+	 *
+	 * @param id 0 for the main worker, higher for helpers
+	 * @param table The transposition table all workers share
+	 * @param options Which of the selective parts of the search to use
+	 */
+	public Worker(int id, TranspositionTable table, SearchOptions options){
+		this.id = id;
+		position = new Position();
+		search = new Search(position, table, options);
+		rootMoves = new int[MoveGenerator.MAX_MOVES];
+	}
+
+	/**
+	 * Sets up the next run. Called on the thread that starts the worker.
+	 * @param pos The position to search, which is copied into the worker's own
+	 * @param moves The legal moves of the position
+	 * @param count The number of moves
+	 * @param maxDepth The deepest iteration to start
+	 * @param timer The time and node limits or null. Only the main worker stops
+	 * starting iterations at the soft limit; helpers run until they are stopped or
+	 * the hard limit or the nodes run out.
+	 * @param handle The search to tell about every finished iteration or null
+	 */
+	public void prepare(Position pos, int[] moves, int count, int maxDepth,
+			TimeManager timer, SearchHandle handle){
+		position.copyFrom(pos);
+		System.arraycopy(moves, 0, rootMoves, 0, count);
+		this.count = count;
+		//the first iteration is always searched, so there is a move to play
+		this.maxDepth = Math.max(maxDepth, 1);
+		this.timer = timer;
+		this.handle = handle;
+		result = null;
+		search.reset();
+		search.newSearch();
+	}
+
+	/**
+	 * Iterative deepening: searches one ply deeper after every finished iteration.
+	 * The main worker stops when the time manager says the next one would not finish
+	 * in time, and its first iteration always finishes so there is a move to play.
+	 * Every odd helper starts one ply deeper than the others.
+	 */
+	@Override
+	public void run() {
+		int skip = id % 2;
+		for(int depth = 1 + skip; depth <= maxDepth; depth++){
+			if(id == 0 && result != null && timer != null
+					&& !timer.canStartIteration())
+				break;
+			TimeManager limit = depth > 1 ? timer : null;
+			SearchResult r = search.searchIteration(rootMoves, count, depth,
+					result, limit);
+			if(r == null)
+				break;
+			result = r;
+			if(handle != null)
+				handle.iterationDone(r);
+			//the best move is searched first in the next iteration
+			Search.toFront(rootMoves, count, r.getMove());
+			//nothing deeper can beat a forced mate
+			if(Math.abs(r.getScore()) > Search.MATE - Search.MAX_PLY)
+				break;
+		}
+	}
+
+	/**
+	 * Ends the run of a helper from another thread
+	 */
+	public void stop(){
+		search.stop();
+	}
+
+	/**
+	 *
+	 * @return The result of the deepest iteration that finished or null
+	 */
+	public SearchResult getResult(){
+		return result;
+	}
+
+	public long getNodes(){
+		return search.getNodes();
+	}
+
+	public long getResearches(){
+		return search.getResearches();
+	}
+}
@@ -0,0 +1,496 @@
+package com.sfleischer.chess.engine.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sfleischer.chess.engine.Move;
+import com.sfleischer.chess.engine.MoveStack;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * Young Brothers Wait: the first move of a node is searched alone, because it is the
+ * most likely to give a good bound or a cutoff. Only then are its younger brothers
+ * handed to the fork/join pool, where idle threads steal them. The brothers share
+ * the bound of their node, so a brother that finishes early narrows the window of
+ * the others, and one that cuts off makes the rest give up.
+ *
+ * Split nodes prune like the serial search: they try the null move first, and late
+ * quiet brothers are searched less deep until they beat alpha. Futility pruning and
+ * razoring only happen in the last plies, which are never split.
+ *
+ * Near the leaves splitting costs more than it saves, so subtrees shallower than
+ * SPLIT_DEPTH are searched by the ordinary Search of the thread that owns them.
+ * That search, with its stacks, killers and history, belongs to the thread, so the
+ * pool never lets an idle thread go the way a fork/join pool normally does after a
+ * minute; a long think of the opponent would throw it all away.
+ * @author sfleischer
+ *
+ */
+public class YbwcSearch implements ParallelSearch{
+
+	private static final int SPLIT_DEPTH = 3; //the shallowest depth that is split
+	private static final int MAX_SPARES = 256; //threads that stand in for joining ones
+	private static final long KEEP_ALIVE_DAYS = 365000; //how long an idle thread lives
+
+	private final TranspositionTable table; //shared by every thread
+	private final ForkJoinPool pool; //the threads that steal the brothers
+	private final ThreadLocal<SerialSearch> serial; //the search below SPLIT_DEPTH
+	private final MoveStack rootStack; //for reading the principal variation
+	private final LongAdder nodes; //the positions visited by every thread
+	private final LongAdder researches; //brothers searched again with the full window
+	private final boolean pvs; //brothers start with a null window
+	private final boolean aspiration; //the root starts with a narrow window
+	private volatile TimeManager timer; //the time limits of the iteration or null
+	private volatile boolean stopped; //true once the time of the move ran out
+
+	/**
+	 *
+	 * @param table The transposition table
+	 * @param threads The number of threads in the pool, at least 1
+	 * @param options Which of the selective parts of the search to use
+	 */
+	public YbwcSearch(final TranspositionTable table, int threads,
+			final SearchOptions options){
+		this.table = table;
+		int parallelism = Math.max(threads, 1);
+		final AtomicInteger count = new AtomicInteger();
+		pool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory(){
+			@Override
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool){
+				//daemon threads, like every fork/join worker
+				ForkJoinWorkerThread thread =
+						ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("ybwc-" + count.incrementAndGet());
+				return thread;
+			}
+		}, null, false, parallelism, parallelism + MAX_SPARES, 1, null, KEEP_ALIVE_DAYS,
+				TimeUnit.DAYS);
+		serial = new ThreadLocal<SerialSearch>(){
+			@Override
+			protected SerialSearch initialValue(){
+				return new SerialSearch(table, options);
+			}
+		};
+		rootStack = new MoveStack();
+		nodes = new LongAdder();
+		researches = new LongAdder();
+		pvs = options.isPvs();
+		aspiration = options.isAspiration();
+	}
+
+	@Override
+	public int getThreads(){
+		return pool.getParallelism();
+	}
+
+	@Override
+	public void shutdown(){
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Iterative deepening on the calling thread. Every iteration is one task for the
+	 * pool, and the first iteration always finishes so there is a move to play.
+	 */
+	@Override
+	public SearchResult search(Position pos, int[] moves, int count, int maxDepth,
+			TimeManager timer, SearchHandle handle){
+		table.newSearch();
+		nodes.reset();
+		researches.reset();
+		stopped = false;
+		int[] rootMoves = Arrays.copyOf(moves, count);
+		SearchResult best = null;
+		//the first iteration is always searched, so there is a move to play
+		for(int depth = 1; depth <= Math.max(maxDepth, 1); depth++){
+			if(best != null && timer != null && !timer.canStartIteration())
+				break;
+			this.timer = depth == 1 ? null : timer;
+			Split root = searchIteration(pos, rootMoves, depth, best);
+			if(stopped)
+				break;
+			int move = root.getBestMove();
+			best = new SearchResult(move, root.getBest(), depth,
+					principalVariation(pos, move, depth), nodes.sum(), researches.sum());
+			if(handle != null)
+				handle.iterationDone(best);
+			Search.toFront(rootMoves, rootMoves.length, move);
+			//nothing deeper can beat a forced mate
+			if(Math.abs(best.getScore()) > Search.MATE - Search.MAX_PLY)
+				break;
+		}
+		//every root move was searched, so the score is exact
+		table.store(pos.getHash(), best.getMove(), best.getScore(), best.getDepth(),
+				TranspositionTable.EXACT);
+		return new SearchResult(best.getMove(), best.getScore(), best.getDepth(),
+				best.getPrincipalVariation(), nodes.sum(), researches.sum());
+	}
+
+	/*********************************************************************************
+	 ------------------------------- SEARCH METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * One iteration. With aspiration windows the root is first searched with a narrow
+	 * window around the score of the last iteration and the window is widened on the
+	 * side the score falls out of, as in Search.searchIteration.
+	 * @return The root of the iteration, with an exact score unless the time ran out
+	 */
+	private Split searchIteration(Position pos, int[] moves, int depth,
+			SearchResult previous){
+		if(!aspiration || previous == null || depth < Search.ASPIRATION_DEPTH
+				|| Math.abs(previous.getScore()) > Search.MATE - Search.MAX_PLY)
+			return searchRoot(pos, moves, depth, -Search.INFINITY, Search.INFINITY);
+
+		int delta = Search.ASPIRATION_WINDOW;
+		int alpha = previous.getScore() - delta;
+		int beta = previous.getScore() + delta;
+		while(true){
+			Split root = searchRoot(pos, moves, depth, alpha, beta);
+			int score = root.getBest();
+			if(stopped || (score > alpha && score < beta))
+				return root;
+			delta *= 2;
+			if(score <= alpha){
+				alpha = Math.max(score - delta, -Search.INFINITY);
+			} else {
+				beta = Math.min(score + delta, Search.INFINITY);
+				Search.toFront(moves, moves.length, root.getBestMove());
+			}
+			researches.increment();
+		}
+	}
+
+	/**
+	 * Searches every root move as one task for the pool
+	 */
+	private Split searchRoot(Position pos, int[] moves, int depth, int alpha, int beta){
+		Split root = new Split(null, alpha, beta);
+		pool.invoke(new Root(pos.copy(), moves, depth, root));
+		return root;
+	}
+
+	/**
+	 * RECURSION ALERT
+	 * Base Case: the subtree is too shallow to split and the thread's own search
+	 * takes over. Otherwise the eldest brother is searched on this thread and the
+	 * younger brothers are forked and joined.
+	 * @param pos The position, which only this task uses
+	 * @param context The node whose cutoff makes this search pointless or null
+	 * @return The score of the position, which means nothing if aborted(context)
+	 */
+	private int search(Position pos, int depth, int alpha, int beta, int ply, Split context){
+		if(depth < SPLIT_DEPTH){
+			SerialSearch s = serial.get();
+			s.context = context;
+			long before = s.getNodes();
+			long repeated = s.getResearches();
+			int score = s.searchNode(pos, depth, alpha, beta, ply, timer);
+			nodes.add(s.getNodes() - before);
+			researches.add(s.getResearches() - repeated);
+			if(s.isStopped() && timer != null && timer.isOutOfTime())
+				stopped = true;
+			return score;
+		}
+		nodes.increment();
+		if(timer != null && timer.isOutOfTime())
+			stopped = true;
+		if(aborted(context))
+			return 0;
+		if(pos.isRepetition() || pos.getHalfmoveClock() >= 100)
+			return Search.DRAW;
+
+		long key = pos.getHash();
+		long entry = table.probe(key);
+		int hashMove = entry == 0 ? Move.NONE : TranspositionTable.move(entry);
+		if(entry != 0 && TranspositionTable.depth(entry) >= depth){
+			int score = Search.fromTable(TranspositionTable.score(entry), ply);
+			int bound = TranspositionTable.bound(entry);
+			if(bound == TranspositionTable.EXACT
+					|| (bound == TranspositionTable.LOWER && score >= beta)
+					|| (bound == TranspositionTable.UPPER && score <= alpha))
+				return score;
+		}
+
+		SerialSearch s = serial.get();
+		boolean inCheck = pos.isInCheck();
+		int eval = inCheck ? -Search.INFINITY : Evaluation.evaluate(pos);
+		if(s.canNullMove(pos, depth, alpha, beta, eval, inCheck)){
+			pos.makeNullMove();
+			int score = -search(pos, Search.nullMoveDepth(depth), -beta, -beta + 1, ply + 1,
+					context);
+			pos.unmakeNullMove();
+			if(aborted(context))
+				return 0;
+			if(score >= beta)
+				return score > Search.MATE - Search.MAX_PLY ? beta : score;
+		}
+
+		//the thread may run other tasks while it joins, so the moves are put in order
+		//at once and copied to an array of their own rather than a row of its stack
+		int count = s.stack.generate(pos, ply);
+		if(count == 0)
+			return inCheck ? -Search.MATE + ply : Search.DRAW;
+		int[] moves = s.stack.get(ply);
+		MoveOrder order = s.getOrder();
+		order.score(pos, moves, count, ply, hashMove);
+		int[] reductions = new int[count];
+		for(int i = 0; i < count; i++){
+			int move = order.pick(moves, count, i, ply);
+			//whether the move gives check is only known once it is played
+			reductions[i] = s.reduction(move, depth, i, ply, inCheck, false);
+		}
+		moves = Arrays.copyOf(moves, count);
+
+		Split split = new Split(context, alpha, beta);
+		expand(pos, moves, reductions, count, depth, ply, split);
+		if(aborted(context))
+			return 0;
+
+		int best = split.getBest();
+		int bound = best >= beta ? TranspositionTable.LOWER
+				: best > alpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		//a move that failed low is no better than the others
+		int bestMove = bound == TranspositionTable.UPPER ? Move.NONE : split.getBestMove();
+		if(bound == TranspositionTable.LOWER)
+			s.getOrder().cutoff(bestMove, depth, ply);
+		table.store(key, bestMove, Search.toTable(best, ply), depth, bound);
+		return best;
+	}
+
+	/**
+	 * Searches the eldest brother, then forks the others unless it cut off
+	 * @param reductions The plies each move may be reduced by or null for none
+	 */
+	private void expand(Position pos, int[] moves, int[] reductions, int count, int depth,
+			int ply, Split split){
+		pos.makeMove(moves[0]);
+		int score = -search(pos, depth - 1, -split.beta, -split.getAlpha(), ply + 1, split);
+		pos.unmakeMove();
+		if(aborted(split))
+			return;
+		split.update(score, moves[0]);
+		if(split.isCutoff() || count == 1)
+			return;
+
+		List<Brother> brothers = new ArrayList<Brother>(count - 1);
+		for(int i = 1; i < count; i++){
+			int r = reductions == null ? 0 : reductions[i];
+			brothers.add(new Brother(pos, moves[i], r, depth - 1, ply + 1, split));
+		}
+		RecursiveAction.invokeAll(brothers);
+	}
+
+	/**
+	 * The search of a node is pointless once the time is up or a node above it has
+	 * been cut off
+	 */
+	private boolean aborted(Split context){
+		if(stopped)
+			return true;
+		for(Split s = context; s != null; s = s.parent){
+			if(s.isCutoff())
+				return true;
+		}
+		return false;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- HELPER METHODS ----------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * The brothers do not keep a principal variation, so it is read back from the
+	 * transposition table, checking that every move is legal on the way
+	 */
+	private int[] principalVariation(Position pos, int move, int depth){
+		Position p = pos.copy();
+		int[] line = new int[depth];
+		int length = 0;
+		while(move != Move.NONE && length < depth){
+			line[length++] = move;
+			p.makeMove(move);
+			long entry = table.probe(p.getHash());
+			move = entry == 0 ? Move.NONE : TranspositionTable.move(entry);
+			if(move != Move.NONE && !isLegal(p, move))
+				move = Move.NONE;
+		}
+		return Arrays.copyOf(line, length);
+	}
+
+	private boolean isLegal(Position p, int move){
+		int count = rootStack.generate(p, 0);
+		int[] legal = rootStack.get(0);
+		for(int i = 0; i < count; i++){
+			if(legal[i] == move)
+				return true;
+		}
+		return false;
+	}
+
+	/*********************************************************************************
+	 ------------------------------- TASKS -------------------------------------------
+	 ********************************************************************************/
+
+	/**
+	 * The root of one iteration. Its moves are given and kept in order from
+	 * iteration to iteration.
+	 */
+	@SuppressWarnings("serial")
+	private class Root extends RecursiveAction{
+
+		private final Position pos;
+		private final int[] moves;
+		private final int depth;
+		private final Split split;
+
+		Root(Position pos, int[] moves, int depth, Split split){
+			this.pos = pos;
+			this.moves = moves;
+			this.depth = depth;
+			this.split = split;
+		}
+
+		@Override
+		protected void compute(){
+			expand(pos, moves, null, moves.length, depth, 0, split);
+		}
+	}
+
+	/**
+	 * A younger brother: one move of a node that was split, searched on whichever
+	 * thread steals it with the bound of the node as it is when the task starts. Like
+	 * in the serial search it first only has to show that it is no better than alpha,
+	 * at a reduced depth if it is a late quiet move. The position is only copied once
+	 * the task runs, so a brother that a cutoff has made pointless costs nothing.
+	 */
+	@SuppressWarnings("serial")
+	private class Brother extends RecursiveAction{
+
+		private final Position parent; //the node, unchanged until its brothers joined
+		private final int move;
+		private final int reduction; //the plies the move may be searched less deep
+		private final int depth;
+		private final int ply;
+		private final Split split; //the node the move belongs to
+
+		Brother(Position parent, int move, int reduction, int depth, int ply, Split split){
+			this.parent = parent;
+			this.move = move;
+			this.reduction = reduction;
+			this.depth = depth;
+			this.ply = ply;
+			this.split = split;
+		}
+
+		@Override
+		protected void compute(){
+			if(aborted(split))
+				return;
+			Position pos = parent.copy();
+			pos.makeMove(move);
+			//a move that gives check is never reduced
+			int r = pos.isInCheck() ? 0 : reduction;
+			int alpha = split.getAlpha();
+			int score;
+			if(r == 0 && !pvs){
+				score = -search(pos, depth, -split.beta, -alpha, ply, split);
+			} else {
+				score = -search(pos, depth - r, -alpha - 1, -alpha, ply, split);
+				//better than expected, so it gets the full depth after all
+				if(score > alpha && r > 0 && pvs && !aborted(split)){
+					researches.increment();
+					score = -search(pos, depth, -alpha - 1, -alpha, ply, split);
+				}
+				//inside the window, so the exact score is needed
+				if(score > alpha && (score < split.beta || !pvs) && !aborted(split)){
+					researches.increment();
+					score = -search(pos, depth, -split.beta, -split.getAlpha(), ply, split);
+				}
+			}
+			//a search that gave up returned a score it never proved
+			if(!aborted(split))
+				split.update(score, move);
+		}
+	}
+
+	/**
+	 * A node whose brothers are searched in parallel. The bound and the best move
+	 * are updated by whichever brother finishes.
+	 */
+	private static class Split{
+
+		final Split parent; //the split node above or null at the root
+		final int beta;
+		private int alpha;
+		private int best; //the best score so far
+		private int bestMove; //the move of the best score
+		private volatile boolean cutoff; //true once a brother scored at least beta
+
+		Split(Split parent, int alpha, int beta){
+			this.parent = parent;
+			this.alpha = alpha;
+			this.beta = beta;
+			best = -Search.INFINITY;
+			bestMove = Move.NONE;
+		}
+
+		synchronized void update(int score, int move){
+			//after a cutoff the brothers still running only give up
+			if(cutoff)
+				return;
+			if(score > best){
+				best = score;
+				bestMove = move;
+				if(score > alpha){
+					alpha = score;
+					if(alpha >= beta)
+						cutoff = true;
+				}
+			}
+		}
+
+		synchronized int getAlpha(){
+			return alpha;
+		}
+
+		synchronized int getBest(){
+			return best;
+		}
+
+		synchronized int getBestMove(){
+			return bestMove;
+		}
+
+		boolean isCutoff(){
+			return cutoff;
+		}
+	}
+
+	/**
+	 * The search of one thread below SPLIT_DEPTH. It also gives up when a split
+	 * node above it has been cut off.
+	 */
+	private class SerialSearch extends Search{
+
+		final MoveStack stack; //for generating the moves of split nodes
+		Split context; //the node the subtree belongs to
+
+		SerialSearch(TranspositionTable table, SearchOptions options){
+			super(null, table, options);
+			stack = new MoveStack();
+		}
+
+		@Override
+		protected boolean isAborted(){
+			return super.isAborted() || aborted(context);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.sfleischer.chess.ui;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+import com.sfleischer.chess.engine.Piece;
+import com.sfleischer.chess.engine.Position;
+
+/**
+ * Loads and draws the piece sprites. Every sprite is read once when the class is
+ * loaded and then shared. The engine never sees an image, pieces are drawn here by
+ * their code.
+ */
+public class Art {
+
+	//the sprite of each piece, indexed by the piece codes in Position
+	private static final BufferedImage[] SPRITES = new BufferedImage[12];
+	
+	static {
+		String[] names = {"pawn", "knight", "bishop", "rook", "queen", "king"};
+		for(int type = Position.PAWN; type <= Position.KING; type++){
+			SPRITES[Position.code(Position.WHITE, type)] = 
+					findImage(names[type] + "_white.png");
+			SPRITES[Position.code(Position.BLACK, type)] = 
+					findImage(names[type] + "_black.png");
+		}
+	}
+	
+	/**
+	 * 
+	 * @param code The piece code (see <code>Position.code</code>)
+	 * @return The cached sprite of the piece or null if it could not be loaded
+	 */
+	public static BufferedImage findImage(int code){
+		return SPRITES[code];
+	}
+	
+	/**
+	 * Draws the sprite of a piece scaled to the size of a square
+	 * @param g2 The graphics to draw on
+	 * @param p The piece to draw
+	 */
+	public static void draw(Graphics2D g2, Piece p, int x, int y, int width, int height){
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D map = scaled.createGraphics();
+        map.drawImage(findImage(p.getCode()), 0, 0, width, width, null); 
+        map.dispose();
+		g2.drawImage(scaled, x, y, null);
+	}
+	
+	/**
+	 * 
+	 * @return The width of a chess piece in pixels
+	 */
+	public static int getPieceImageWidth(){
+		//all images should have same width
+		return findImage(Position.code(Position.WHITE, Position.QUEEN)).getWidth();
+	}
+	
+	/**
+	 * 
+	 * @return The height of a chess piece in pixels
+	 */
+	public static int getPieceImageHeight(){
+		//all images should have same height
+		return findImage(Position.code(Position.WHITE, Position.QUEEN)).getHeight();
+	}
+	
+	/**
+	 * Reads an image from the classpath. Falls back to the working directory so the
+	 * game still finds its sprites when it is run from the project folder.
+	 * @param file The name of the image
+	 * @return The image or null if it could not be read
+	 */
+	public static BufferedImage findImage(String file){
+        BufferedImage image = null;
+        try{
+            URL url = Art.class.getResource("/" + file);
+            if(url != null)
+                image = ImageIO.read(url);
+            else
+                image = ImageIO.read(new File(file));
+        } catch(IOException e){
+            System.out.println(file+ " was not found");
+        } 
+        return image;
+    }
+}
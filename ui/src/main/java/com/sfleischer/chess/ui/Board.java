@@ -1,3 +1,5 @@
+package com.sfleischer.chess.ui;
+
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -13,8 +15,14 @@ import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
+import com.sfleischer.chess.engine.ChessModel;
+import com.sfleischer.chess.engine.Location;
+import com.sfleischer.chess.engine.MoveListener;
+import com.sfleischer.chess.engine.Piece;
+import com.sfleischer.chess.engine.Polarity;
+
 @SuppressWarnings("serial")
-public class Board extends JPanel{
+public class Board extends JPanel implements MoveListener{
 
 	public static final int SPACE_X = 10; //the space buffer between the frame
 	public static final int SPACE_Y = 10; //space buffer in the y direction
@@ -46,6 +54,7 @@ public class Board extends JPanel{
 		model = m;
 		side = p;
 		running = true;
+		model.addMoveListener(this);
 	}
 	
 	/**
@@ -58,6 +67,21 @@ public class Board extends JPanel{
 		premove = null;
 		running = true;
 		side = bottom;
+		model.addMoveListener(this);
+	}
+	
+	/**
+	 * The computer plays its move whenever its search is over, so the board listens
+	 * to the model and repaints after every move instead of being handed to the player
+	 */
+	@Override
+	public void moved(){
+		repaint();
+	}
+	
+	@Override
+	public void pause(){
+		repaint();
 	}
 	
 	/*********************************************************************************
@@ -125,7 +149,7 @@ public class Board extends JPanel{
 				double y = (side == Polarity.White) ? 
 						(7 - row) * yunit 
 						: row * yunit;
-				p.draw(g2, origin_x + x + PIECE_SPACE, 
+				Art.draw(g2, p, origin_x + x + PIECE_SPACE, 
 						(int) (origin_y + y + PIECE_SPACE), size, size);
 			}
 		}
@@ -284,7 +308,7 @@ public class Board extends JPanel{
 			int col = (int) ((x - 1.0 * origin_x) / xunit);
 			int row = (int) ((y - 1.0 * origin_y) / yunit);
 			row = side == Polarity.White ? 7 - row : row;
-			return new Location(row, col);
+			return Location.of(row, col);
 		}
 		
 		@Override
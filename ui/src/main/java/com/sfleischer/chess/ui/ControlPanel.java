@@ -1,3 +1,5 @@
+package com.sfleischer.chess.ui;
+
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
@@ -16,13 +18,20 @@ import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import javax.swing.Timer;
 
+import com.sfleischer.chess.engine.ChessModel;
+import com.sfleischer.chess.engine.GameClock;
+import com.sfleischer.chess.engine.MoveListener;
+import com.sfleischer.chess.engine.Player;
+import com.sfleischer.chess.engine.Polarity;
+import com.sfleischer.chess.engine.search.AI;
+import com.sfleischer.chess.engine.search.Engine;
+
 public class ControlPanel extends JPanel{
 	
 	Board board; //the board
 	ChessModel model; //the model
 	JLabel playerClock;
 	JLabel opponentClock;
-	Polarity currentPlayer; //polarity of the current player
 	Polarity player;
 	boolean running; //fix this
 	
@@ -31,8 +40,10 @@ public class ControlPanel extends JPanel{
 	JButton resign; //the resign or new game button
 	JButton newgame; //creates a new game
 	
-	Timer playerTimer;
-	Timer opponentTimer;
+	GameClock clock; //the clock of the current game
+	Timer refresh; //shows the time on the clocks
+	AI ai; //the computer of the current game or null
+	Engine engine; //the threads of the computer, kept from game to game
 	
 	String instructions = 
 			"Welcome to Fleischer Chess! If you do not know how to play chess,s"
@@ -47,11 +58,12 @@ public class ControlPanel extends JPanel{
 			+ "each player will only have 5 minutes to play, no more" 
 			+ "no less. ";
 
-	public ControlPanel(Board b, ChessModel m){
+	public ControlPanel(Board b, ChessModel m, AI computer){
 		board = b;
 		model = m;
+		ai = computer;
+		engine = computer == null ? null : computer.getEngine();
 		player = Polarity.White;
-		currentPlayer = Polarity.White; //first to move is white
 		running = false;
 		this.setPreferredSize(new Dimension(250,600));
 		this.setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
@@ -64,14 +76,42 @@ public class ControlPanel extends JPanel{
 	}
 	
 	/**
-	 * 
+	 * Gives the model a new clock. The computer plans its moves with the same clock
+	 * that is shown here.
 	 * @param minutes number of minutes to put on the clock
 	 */
 	public void createTimers(int mins){
-		playerTimer = new Timer(1000, 
-				new TimerHandler(player, playerClock, mins));
-		opponentTimer = new Timer(1000,
-				new TimerHandler(Polarity.opposite(player), opponentClock, mins));
+		if(refresh != null)
+			refresh.stop();
+		clock = new GameClock(mins * 60 * 1000L, 0);
+		model.setClock(clock);
+		refresh = new Timer(200, new TimerHandler());
+		refresh.start();
+		showTime();
+	}
+	
+	/**
+	 * Shows the time left of both sides on the clocks
+	 */
+	public void showTime(){
+		playerClock.setText(format(clock.getRemaining(player)));
+		opponentClock.setText(format(clock.getRemaining(Polarity.opposite(player))));
+	}
+	
+	/**
+	 * 
+	 * @param millis The time in milliseconds
+	 * @return The time as minutes and seconds (for example 04:59)
+	 */
+	private static String format(long millis){
+		long seconds = (millis + 999) / 1000; //a clock only shows 00:00 once it ran out
+		String mins = Long.toString(seconds / 60);
+		String secs = Long.toString(seconds % 60);
+		if(mins.length() == 1)
+			mins = "0" + mins;
+		if(secs.length() == 1)
+			secs = "0" + secs;
+		return mins + ":" + secs;
 	}
 	
 	public void createClocks(){
@@ -139,9 +179,9 @@ public class ControlPanel extends JPanel{
 
 			@Override
 			public void actionPerformed(ActionEvent e) {
+				clock.stop();
+				stopComputer();
 				board.showCheckmate(Polarity.opposite(model.getCurrentSide()));
-				playerTimer.stop();
-				opponentTimer.stop();
 			}
 			
 		});
@@ -173,7 +213,9 @@ public class ControlPanel extends JPanel{
 				null); //default button title
 				
 				player = (m == 0) ? Polarity.White : Polarity.Black;
-				currentPlayer = Polarity.White;
+				clock.stop();
+				stopComputer();
+				ai = null;
 				if(n == 0){
 					Player person = new Person(player);
 					Player person2 = new Person(Polarity.opposite(player));
@@ -182,28 +224,25 @@ public class ControlPanel extends JPanel{
 					person.setModel(mod);
 					person2.setModel(mod);
 					model = mod;
+					createTimers(5);
 					board.setModel(model, player);
 					board.repaint();
 				} else if(n == 1){
 					Player person = new Person(player);
-					AI ai = new AI(Polarity.opposite(player));
+					if(engine == null)
+						engine = Engine.fromProperties();
+					ai = new AI(Polarity.opposite(player), engine, new SwingExecutor());
 					ChessModel mod = new ChessModel(person, ai);
 					mod.addMoveListener(new MoveHandler());
 					person.setModel(mod);
 					ai.setModel(mod);
-					ai.setBoard(board);
 					model = mod;
+					createTimers(5); //before the computer looks at its clock
 					board.setModel(model, player);
 					board.repaint();
 					if(player == Polarity.Black)
 						ai.move();
 				}
-				playerTimer.stop();
-				opponentTimer.stop();
-	
-				playerClock.setText("05:00");
-				opponentClock.setText("05:00");
-				createTimers(5);
 			}
 		});
 		 
@@ -232,38 +271,26 @@ public class ControlPanel extends JPanel{
 		panel.add(buttonPanel);
 	}
 	
+	/**
+	 * Stops the search of the computer of a finished game, so it never plays a move
+	 * into a game that is over or thrown away
+	 */
+	private void stopComputer(){
+		if(ai != null)
+			ai.stop();
+	}
+	
 	private class TimerHandler implements ActionListener{
-		JLabel label;
-		int minutes;
-		int seconds;
-		
-		public TimerHandler(Polarity p, JLabel l, int mins){
-			label = l;
-			minutes = mins;
-			seconds = 0;
-		}
 		
 		@Override
 		public void actionPerformed(ActionEvent e) {
-			if(minutes == 0 && seconds == 0){
-				board.showCheckmate(
-						Polarity.opposite(currentPlayer)); //end of game
-				playerTimer.stop(); //stop the clocks
-				opponentTimer.stop();
-			} else if(seconds == 0){
-				minutes--;
-				seconds = 59;
-			} else {
-				seconds--;
+			showTime();
+			if(clock.isFlagged()){
+				Polarity loser = clock.getRunningSide();
+				clock.stop(); //stop the clocks
+				stopComputer();
+				board.showCheckmate(Polarity.opposite(loser)); //end of game
 			}
-			
-			String mins = Integer.toString(minutes);
-			String secs = Integer.toString(seconds);
-			if(mins.length() == 1)
-				mins = "0" + mins;
-			if(secs.length() == 1)
-				secs = "0" + secs;
-			label.setText(mins + ":" + secs);
 		}
 		
 	}
@@ -272,22 +299,17 @@ public class ControlPanel extends JPanel{
 
 		@Override
 		public void moved() {
-			if(currentPlayer == player){
-				playerTimer.stop();
-				currentPlayer = Polarity.opposite(player);
-				opponentTimer.start();
-			} else {
-				opponentTimer.stop();
-				currentPlayer = player;
-				playerTimer.start();
-			}
-			
+			clock.switchTo(model.getCurrentSide());
 		}
 		
+		/**
+		 * The board pauses the game when it ends in checkmate or stalemate. The model
+		 * never asks a mated computer to move, so its ponder search is stopped here.
+		 */
 		@Override 
 		public void pause(){
-			playerTimer.stop();
-			opponentTimer.stop();
+			clock.stop();
+			stopComputer();
 		}
 		
 	}
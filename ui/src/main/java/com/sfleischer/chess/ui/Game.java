@@ -1,3 +1,5 @@
+package com.sfleischer.chess.ui;
+
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
 
@@ -5,6 +7,11 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
+import com.sfleischer.chess.engine.ChessModel;
+import com.sfleischer.chess.engine.Polarity;
+import com.sfleischer.chess.engine.search.AI;
+import com.sfleischer.chess.engine.search.Engine;
+
 public class Game implements Runnable{
 
 	public static void main(String[] args){
@@ -17,7 +24,7 @@ public class Game implements Runnable{
 	
 		
 		Person white = new Person(Polarity.White);
-		AI black = new AI(Polarity.Black);
+		AI black = new AI(Polarity.Black, Engine.fromProperties(), new SwingExecutor());
 		
 		//this is a default model
 		ChessModel model = new ChessModel(white, black);
@@ -25,9 +32,8 @@ public class Game implements Runnable{
 		black.setModel(model);
 		
 		Board board = new Board(model, Polarity.White);
-		ControlPanel cp = new ControlPanel(board, model);
+		ControlPanel cp = new ControlPanel(board, model, black);
 		
-		black.setBoard(board);
 		//white.setBoard(board);
 		white.move();
 		JPanel panel = new JPanel(new BorderLayout());
@@ -1,8 +1,14 @@
+package com.sfleischer.chess.ui;
+
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 import javax.swing.JOptionPane;
 
+import com.sfleischer.chess.engine.ChessModel;
+import com.sfleischer.chess.engine.Player;
+import com.sfleischer.chess.engine.Polarity;
+
 public class Person extends Player{
 
 	public Person(Polarity p) {
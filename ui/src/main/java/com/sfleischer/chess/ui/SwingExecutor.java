@@ -0,0 +1,20 @@
+package com.sfleischer.chess.ui;
+
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs tasks on the event dispatch thread. The window reads the model there, when the
+ * board paints and when a piece is picked up, so the computer plays its moves there
+ * too instead of changing the position halfway through a repaint.
+ * @author sfleischer
+ *
+ */
+class SwingExecutor implements Executor{
+
+	@Override
+	public void execute(Runnable task){
+		SwingUtilities.invokeLater(task);
+	}
+}